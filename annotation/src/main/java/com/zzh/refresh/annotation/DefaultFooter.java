@@ -0,0 +1,15 @@
+package com.zzh.refresh.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 指定全局的FooterView类，编译时生成对应的工厂，不需要通过反射创建<br>
+ * 被注解的类必须是public的非抽象View，实现LoadingView接口，并且有public的(Context)构造方法
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface DefaultFooter {
+}
@@ -0,0 +1,26 @@
+package com.zzh.refresh.annotation;
+
+/**
+ * 注解处理器生成的类名
+ */
+public final class GeneratedNames {
+    /**
+     * 生成的工厂提供类所在的包名
+     */
+    public static final String PROVIDER_PACKAGE = "com.zzh.refresh.generated";
+    /**
+     * 生成的工厂提供类的类名
+     */
+    public static final String PROVIDER_SIMPLE_NAME = "GeneratedLoadingViewFactoryProvider";
+    /**
+     * 生成的工厂提供类的全类名
+     */
+    public static final String PROVIDER_CLASS = PROVIDER_PACKAGE + "." + PROVIDER_SIMPLE_NAME;
+    /**
+     * 生成的工厂提供类中注册工厂的静态方法名
+     */
+    public static final String INSTALL_METHOD = "install";
+
+    private GeneratedNames() {
+    }
+}
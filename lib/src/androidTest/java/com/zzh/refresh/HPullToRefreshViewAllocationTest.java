@@ -0,0 +1,180 @@
+package com.zzh.refresh;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.zzh.refresh.loadingview.LoadingView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 统计一次完整手势（按下、多次移动、抬起）经过添加到窗口的{@link HPullToRefreshView}时主线程的对象分配数量，在设备上运行<br>
+ * 事件经过{@link com.zzh.refresh.gesture.HGestureManager}、{@link com.zzh.refresh.gesture.HTouchHelper}以及刷新控件的拖动判断、移动和松手处理
+ */
+@RunWith(AndroidJUnit4.class)
+public class HPullToRefreshViewAllocationTest {
+    private static final int MOVE_COUNT = 30;
+    private static final int MOVE_STEP = 10;
+    private static final int FRAME_TIME = 16;
+    private static final int LOADING_VIEW_HEIGHT = 200;
+    private static final long IDLE_TIMEOUT = 3000;
+
+    private ActivityScenario<Activity> mScenario;
+    private HPullToRefreshView mPullToRefreshView;
+    private MotionEvent[] mEvents;
+
+    private int mPullCount;
+    private int mAllocCount;
+
+    @Before
+    public void setUp() {
+        mScenario = ActivityScenario.launch(Activity.class);
+        mScenario.onActivity(new ActivityScenario.ActivityAction<Activity>() {
+            @Override
+            public void perform(Activity activity) {
+                mPullToRefreshView = new HPullToRefreshView.Builder(activity)
+                        .setRefreshView(new View(activity))
+                        .setHeaderView(new TestLoadingView(activity))
+                        .setMode(PullToRefreshView.Mode.PULL_FROM_HEADER)
+                        .setOnStateChangeCallback(new PullToRefreshView.OnStateChangeCallback() {
+                            @Override
+                            public void onStateChanged(PullToRefreshView.State oldState, PullToRefreshView.State newState,
+                                                       PullToRefreshView view) {
+                                if (newState == PullToRefreshView.State.PULL_TO_REFRESH)
+                                    mPullCount++;
+                            }
+                        })
+                        .build();
+                activity.setContentView(mPullToRefreshView);
+            }
+        });
+
+        // 事件对象在统计前创建好，只统计手势处理本身的分配
+        mEvents = new MotionEvent[MOVE_COUNT + 2];
+        final float x = 100;
+        final float y = 100;
+        mEvents[0] = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, x, y, 0);
+        for (int i = 1; i <= MOVE_COUNT; i++) {
+            mEvents[i] = MotionEvent.obtain(0, i * FRAME_TIME, MotionEvent.ACTION_MOVE, x, y + i * MOVE_STEP, 0);
+        }
+        mEvents[MOVE_COUNT + 1] = MotionEvent.obtain(0, (MOVE_COUNT + 1) * FRAME_TIME, MotionEvent.ACTION_UP,
+                x, y + MOVE_COUNT * MOVE_STEP, 0);
+    }
+
+    @After
+    public void tearDown() {
+        for (MotionEvent event : mEvents) {
+            event.recycle();
+        }
+        mScenario.close();
+    }
+
+    @Test
+    public void pullGesture_doesNotAllocate() {
+        // 第一次手势创建可以复用的对象（VelocityTracker、HTouchHelper、触摸目标等）
+        dispatchGesture(false);
+        assertEquals(1, mPullCount);
+        waitForReset();
+
+        dispatchGesture(true);
+        assertEquals("second gesture did not pull", 2, mPullCount);
+        assertEquals("allocations during gesture", 0, mAllocCount);
+        waitForReset();
+    }
+
+    /**
+     * 在主线程把整个手势分发给刷新控件
+     *
+     * @param count 是否统计分发过程中主线程的分配数量
+     */
+    private void dispatchGesture(final boolean count) {
+        mScenario.onActivity(new ActivityScenario.ActivityAction<Activity>() {
+            @Override
+            public void perform(Activity activity) {
+                if (count) {
+                    Debug.resetThreadAllocCount();
+                    Debug.startAllocCounting();
+                }
+
+                for (MotionEvent event : mEvents) {
+                    mPullToRefreshView.dispatchTouchEvent(event);
+                }
+
+                if (count) {
+                    Debug.stopAllocCounting();
+                    mAllocCount = Debug.getThreadAllocCount();
+                }
+            }
+        });
+    }
+
+    /**
+     * 等待松手后的回弹结束
+     */
+    private void waitForReset() {
+        final long end = SystemClock.uptimeMillis() + IDLE_TIMEOUT;
+        final boolean[] reset = new boolean[1];
+        while (SystemClock.uptimeMillis() < end) {
+            mScenario.onActivity(new ActivityScenario.ActivityAction<Activity>() {
+                @Override
+                public void perform(Activity activity) {
+                    reset[0] = mPullToRefreshView.getState() == PullToRefreshView.State.RESET;
+                }
+            });
+            if (reset[0])
+                return;
+            SystemClock.sleep(FRAME_TIME);
+        }
+        assertTrue("view did not settle back to RESET", reset[0]);
+    }
+
+    /**
+     * 固定高度、回调中不做任何事情的加载view，只统计刷新控件本身的分配；永远不满足刷新条件，松手后回到初始位置
+     */
+    private static final class TestLoadingView extends View implements LoadingView {
+        TestLoadingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec), LOADING_VIEW_HEIGHT);
+        }
+
+        @Override
+        public boolean canRefresh(int scrollDistance) {
+            return false;
+        }
+
+        @Override
+        public int getRefreshingHeight() {
+            return LOADING_VIEW_HEIGHT;
+        }
+
+        @Override
+        public PullToRefreshView getPullToRefreshView() {
+            return (PullToRefreshView) getParent();
+        }
+
+        @Override
+        public void onStateChanged(PullToRefreshView.State oldState, PullToRefreshView.State newState, PullToRefreshView view) {
+        }
+
+        @Override
+        public void onViewPositionChanged(PullToRefreshView view) {
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.zzh.refresh;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 返回{@link RefreshFuture}的刷新回调，有结果后在主线程自动调用{@link PullToRefreshView#stopRefreshingWithResult(boolean)}，
+ * 超时后按失败处理并取消结果，刷新令牌被取消的时候结果也会被取消<br>
+ * 耗时的刷新可以通过{@link RefreshFuture#submit(java.util.concurrent.Executor, java.util.concurrent.Callable)}在后台线程执行
+ */
+public abstract class AsyncRefreshCallback implements PullToRefreshView.OnRefreshCallback {
+    /**
+     * 默认超时时长（毫秒）
+     */
+    public static final long DEFAULT_TIMEOUT = 15000;
+
+    private final long mTimeout;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    /**
+     * 每个刷新控件当前正在等待的刷新
+     */
+    private final Map<PullToRefreshView, PendingRefresh> mPendingRefresh = new WeakHashMap<>();
+
+    public AsyncRefreshCallback() {
+        this(DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @param timeout 超时时长（毫秒），小于等于0表示不超时
+     */
+    public AsyncRefreshCallback(long timeout) {
+        mTimeout = timeout;
+    }
+
+    /**
+     * 下拉触发刷新，在主线程回调
+     *
+     * @param view
+     * @param token 这次刷新的令牌，刷新控件被移除、禁止刷新或者刷新被停止的时候取消
+     * @return 刷新结果，不能为null
+     */
+    protected abstract RefreshFuture refreshFromHeader(PullToRefreshView view, RefreshToken token);
+
+    /**
+     * 上拉触发刷新，在主线程回调
+     *
+     * @param view
+     * @param token 这次刷新的令牌，刷新控件被移除、禁止刷新或者刷新被停止的时候取消
+     * @return 刷新结果，不能为null
+     */
+    protected abstract RefreshFuture refreshFromFooter(PullToRefreshView view, RefreshToken token);
+
+    @Override
+    public final void onRefreshingFromHeader(PullToRefreshView view) {
+        final RefreshToken token = view.getRefreshToken();
+        track(view, token, refreshFromHeader(view, token));
+    }
+
+    @Override
+    public final void onRefreshingFromFooter(PullToRefreshView view) {
+        final RefreshToken token = view.getRefreshToken();
+        track(view, token, refreshFromFooter(view, token));
+    }
+
+    private void track(PullToRefreshView view, RefreshToken token, RefreshFuture future) {
+        if (future == null)
+            throw new NullPointerException("RefreshFuture is null");
+
+        if (token != null)
+            token.attachFuture(future);
+
+        // 之前的刷新还没有结果，取消
+        final PendingRefresh old = mPendingRefresh.remove(view);
+        if (old != null)
+            old.cancel();
+
+        final PendingRefresh pending = new PendingRefresh(view, future);
+        mPendingRefresh.put(view, pending);
+        pending.start();
+    }
+
+    private final class PendingRefresh implements RefreshFuture.Listener, Runnable {
+        /**
+         * 弱引用，避免WeakHashMap的值引用键导致刷新控件无法回收
+         */
+        private final WeakReference<PullToRefreshView> mView;
+        private final RefreshFuture mFuture;
+
+        PendingRefresh(PullToRefreshView view, RefreshFuture future) {
+            mView = new WeakReference<>(view);
+            mFuture = future;
+        }
+
+        void start() {
+            mFuture.addListener(this);
+            if (mTimeout > 0)
+                mHandler.postDelayed(this, mTimeout);
+        }
+
+        void cancel() {
+            mHandler.removeCallbacks(this);
+            mFuture.removeListener(this);
+            mFuture.cancel(true);
+        }
+
+        /**
+         * 结束等待
+         *
+         * @return 刷新控件，null表示已经被回收或者这次刷新已经不是当前的刷新
+         */
+        private PullToRefreshView finish() {
+            mHandler.removeCallbacks(this);
+
+            final PullToRefreshView view = mView.get();
+            if (view == null || mPendingRefresh.get(view) != this)
+                return null;
+
+            mPendingRefresh.remove(view);
+            return view;
+        }
+
+        @Override
+        public void onComplete(RefreshFuture future, boolean success) {
+            final PullToRefreshView view = finish();
+            if (view == null)
+                return;
+
+            if (view.getState() == PullToRefreshView.State.REFRESHING)
+                view.stopRefreshingWithResult(success);
+        }
+
+        /**
+         * 超时
+         */
+        @Override
+        public void run() {
+            final PullToRefreshView view = finish();
+            mFuture.removeListener(this);
+            mFuture.cancel(true);
+
+            if (view == null)
+                return;
+
+            if (view.getState() == PullToRefreshView.State.REFRESHING)
+                view.stopRefreshingWithResult(false);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.zzh.refresh;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.core.view.ViewCompat;
 
@@ -10,10 +12,11 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import com.zzh.refresh.gesture.HTouchHelper;
+import com.zzh.refresh.gesture.HTrace;
 import com.zzh.refresh.loadingview.LoadingView;
-import com.zzh.refresh.loadingview.SimpleTextLoadingView;
-
-import java.lang.reflect.Constructor;
+import com.zzh.refresh.loadingview.LoadingViewFactoryRegistry;
+import com.zzh.refresh.loadingview.LoadingViewPool;
+import com.zzh.refresh.resistance.LinearDragResistance;
 
 /**
  * @Date: 2020-02-13 18:07
@@ -23,8 +26,43 @@ import java.lang.reflect.Constructor;
  * @Description: BasePullToRefreshView.java
  */
 public abstract class BasePullToRefreshView extends ViewGroup implements PullToRefreshView {
+    private static final String TRACE_MOVE_VIEWS = "PullToRefreshView#moveViews";
+    private static final String TRACE_MEASURE = "PullToRefreshView#onMeasure";
+    private static final String TRACE_LAYOUT = "PullToRefreshView#layoutInternal";
+    private static final String TRACE_SET_STATE = "PullToRefreshView#setState";
+    private static final String TRACE_DEAL_VIEW_IDLE = "PullToRefreshView#dealViewIdle";
+    /**
+     * 每个状态对应的异步追踪片段名称
+     */
+    private static final String[] TRACE_STATES;
+
+    static {
+        final State[] states = State.values();
+        TRACE_STATES = new String[states.length];
+        for (State item : states) {
+            TRACE_STATES[item.ordinal()] = "PullToRefreshView:" + item.name();
+        }
+    }
+
     private LoadingView mHeaderView;
     private LoadingView mFooterView;
+    /**
+     * HeaderView是否是内部按需创建的（外部设置的view不会因为模式变化被移除）
+     */
+    private boolean mIsDefaultHeaderView;
+    /**
+     * FooterView是否是内部按需创建的（外部设置的view不会因为模式变化被移除）
+     */
+    private boolean mIsDefaultFooterView;
+    /**
+     * HeaderView是否可以归还到复用池（不是通过{@link #onCreateHeaderView()}创建的）
+     */
+    private boolean mCanRecycleHeaderView;
+    /**
+     * FooterView是否可以归还到复用池（不是通过{@link #onCreateFooterView()}创建的）
+     */
+    private boolean mCanRecycleFooterView;
+    private LoadingViewPool mLoadingViewPool;
     private View mRefreshView;
 
     private PullToRefreshView.Mode mMode = PullToRefreshView.Mode.PULL_BOTH;
@@ -34,26 +72,72 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
      * HeaderView和FooterView是否是覆盖的模式
      */
     private boolean mIsOverLayMode = false;
+    /**
+     * 是否通过translationY来移动view，而不改变view的布局位置
+     */
+    private boolean mIsTranslationMode = false;
     /**
      * 拖动的时候要消耗的拖动距离比例
      */
     private float mComsumeScrollPercent = DEFAULT_COMSUME_SCROLL_PERCENT;
+    /**
+     * 拖动阻力，null表示按{@link #mComsumeScrollPercent}消耗
+     */
+    private DragResistance mDragResistance;
+    private DragResistance mDefaultDragResistance;
+    /**
+     * 非translation模式下移动距离的小数部分，累加到下一次拖动
+     */
+    private float mDragRemainder;
     /**
      * 显示刷新结果的时长
      */
     private int mDurationShowRefreshResult = DEFAULT_DURATION_SHOW_REFRESH_RESULT;
+    /**
+     * HeaderView和FooterView的尺寸是否固定（不随当前view的高度变化）
+     */
+    private boolean mIsLoadingViewFixedSize = false;
+    /**
+     * 是否在进入{@link State#REFRESHING}状态的时候立即回调刷新，而不是等view滑动结束
+     */
+    private boolean mIsNotifyRefreshingImmediately = false;
+    /**
+     * 当前这次刷新是否已经回调过
+     */
+    private boolean mIsRefreshNotified;
+
+    private final MeasureCache mHeaderMeasureCache = new MeasureCache();
+    private final MeasureCache mFooterMeasureCache = new MeasureCache();
+    private final MeasureCache mRefreshMeasureCache = new MeasureCache();
+    private int mLastWidthMeasureSpec;
+    private int mLastHeightMeasureSpec;
+    private boolean mHasMeasureSpec;
 
     private OnRefreshCallback mOnRefreshCallback;
     private OnStateChangeCallback mOnStateChangeCallback;
     private OnViewPositionChangeCallback mOnViewPositionChangeCallback;
+    private OnRefreshLikelyCallback mOnRefreshLikelyCallback;
+    /**
+     * 当前拖动或者刷新的令牌
+     */
+    private RefreshToken mRefreshToken;
     private PullCondition mPullCondition;
 
     protected boolean mIsDebug;
     private boolean mIsDebugLayout;
 
+    /**
+     * 当前状态的异步追踪片段名称，null表示没有开始追踪
+     */
+    private String mTraceStateSection;
+    private final int mTraceCookie = System.identityHashCode(this);
+
+    public BasePullToRefreshView(Context context) {
+        this(context, null);
+    }
+
     public BasePullToRefreshView(Context context, AttributeSet attrs) {
         super(context, attrs);
-        addLoadingViews();
     }
 
     /**
@@ -74,6 +158,45 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         mIsDebugLayout = debugLayout;
     }
 
+    /**
+     * 设置HeaderView和FooterView的尺寸是否固定（默认false）<br>
+     * 设置为true表示HeaderView和FooterView的尺寸只和当前view的宽度有关，当前view高度的变化以及刷新view内容的变化不会重新测量HeaderView和FooterView
+     *
+     * @param fixedSize
+     */
+    public void setLoadingViewFixedSize(boolean fixedSize) {
+        if (mIsLoadingViewFixedSize != fixedSize) {
+            mIsLoadingViewFixedSize = fixedSize;
+            mHeaderMeasureCache.invalidate();
+            mFooterMeasureCache.invalidate();
+            requestLayout();
+        }
+    }
+
+    /**
+     * 设置是否在进入刷新状态的时候立即回调{@link OnRefreshCallback}（默认false）<br>
+     * 默认在view滑动到刷新位置静止后才回调，设置为true后松手或者代码触发刷新时立即回调，和滑动动画同时进行，
+     * 位置修正仍然在view静止后执行
+     *
+     * @param immediately
+     */
+    public void setNotifyRefreshingImmediately(boolean immediately) {
+        mIsNotifyRefreshingImmediately = immediately;
+    }
+
+    /**
+     * 设置加载view复用池，HeaderView和FooterView在第一次需要的时候从池中借出，当前view从窗口移除的时候归还
+     *
+     * @param pool
+     */
+    public void setLoadingViewPool(LoadingViewPool pool) {
+        mLoadingViewPool = pool;
+    }
+
+    public LoadingViewPool getLoadingViewPool() {
+        return mLoadingViewPool;
+    }
+
     protected final String getDebugTag() {
         return getClass().getSimpleName();
     }
@@ -90,7 +213,14 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         if (mode == null)
             throw new NullPointerException("mode is null");
 
-        mMode = mode;
+        if (mMode != mode) {
+            mMode = mode;
+            if (mode == Mode.PULL_DISABLE)
+                cancelRefreshToken();
+            removeUnreachableLoadingViews();
+            // 模式变化后需要测量的view可能变化
+            requestLayout();
+        }
     }
 
     @Override
@@ -113,6 +243,11 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         mPullCondition = pullCondition;
     }
 
+    @Override
+    public void setOnRefreshLikelyCallback(OnRefreshLikelyCallback onRefreshLikelyCallback) {
+        mOnRefreshLikelyCallback = onRefreshLikelyCallback;
+    }
+
     @Override
     public void setOverLayMode(boolean overLayMode) {
         if (mState == State.RESET)
@@ -124,12 +259,48 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         return mIsOverLayMode;
     }
 
+    @Override
+    public void setTranslationMode(boolean translationMode) {
+        if (mState == State.RESET && mIsTranslationMode != translationMode) {
+            mIsTranslationMode = translationMode;
+            resetTranslation((View) mHeaderView);
+            resetTranslation((View) mFooterView);
+            resetTranslation(mRefreshView);
+            requestLayout();
+        }
+    }
+
+    @Override
+    public boolean isTranslationMode() {
+        return mIsTranslationMode;
+    }
+
+    private static void resetTranslation(View view) {
+        if (view != null)
+            view.setTranslationY(0);
+    }
+
     @Override
     public void setComsumeScrollPercent(float percent) {
         if (percent < 0 || percent > 1)
             throw new IllegalArgumentException("percent >= 0 && percent <= 1 required");
 
         mComsumeScrollPercent = percent;
+        mDefaultDragResistance = null;
+    }
+
+    @Override
+    public void setDragResistance(DragResistance dragResistance) {
+        mDragResistance = dragResistance;
+    }
+
+    private DragResistance getDragResistance() {
+        if (mDragResistance != null)
+            return mDragResistance;
+
+        if (mDefaultDragResistance == null)
+            mDefaultDragResistance = new LinearDragResistance(mComsumeScrollPercent);
+        return mDefaultDragResistance;
     }
 
     @Override
@@ -163,6 +334,8 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         if (mState == State.REFRESHING
                 || mState == State.REFRESHING_SUCCESS
                 || mState == State.REFRESHING_FAILURE) {
+            // 没有刷新结果就停止的时候取消正在进行的刷新
+            cancelRefreshToken();
             setState(State.FINISH);
             updateViewByState();
         }
@@ -171,6 +344,9 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
     @Override
     public void stopRefreshingWithResult(boolean success) {
         if (mState == State.REFRESHING) {
+            if (mRefreshToken != null)
+                mRefreshToken.finish();
+
             if (success)
                 setState(State.REFRESHING_SUCCESS);
             else
@@ -193,8 +369,20 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         return mMode;
     }
 
+    /**
+     * 返回HeaderView，如果还未创建则会先创建
+     *
+     * @return
+     */
     @Override
     public LoadingView getHeaderView() {
+        if (mHeaderView == null) {
+            if (mIsDebug)
+                Log.i(getDebugTag(), "create HeaderView");
+
+            setHeaderViewInternal(createHeaderView());
+            mIsDefaultHeaderView = true;
+        }
         return mHeaderView;
     }
 
@@ -203,16 +391,37 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         if (headerView == null || headerView == mHeaderView)
             return;
 
+        setHeaderViewInternal(headerView);
+        mIsDefaultHeaderView = false;
+        mCanRecycleHeaderView = false;
+    }
+
+    private void setHeaderViewInternal(LoadingView headerView) {
         if (!(headerView instanceof View))
             throw new IllegalArgumentException("headerView must be instance of " + View.class);
 
-        removeView((View) mHeaderView);
-        addView((View) headerView);
+        if (mHeaderView != null)
+            removeView((View) mHeaderView);
+        // 添加到刷新view的下面
+        addView((View) headerView, 0);
         mHeaderView = headerView;
+        mHeaderMeasureCache.invalidate();
     }
 
+    /**
+     * 返回FooterView，如果还未创建则会先创建
+     *
+     * @return
+     */
     @Override
     public LoadingView getFooterView() {
+        if (mFooterView == null) {
+            if (mIsDebug)
+                Log.i(getDebugTag(), "create FooterView");
+
+            setFooterViewInternal(createFooterView());
+            mIsDefaultFooterView = true;
+        }
         return mFooterView;
     }
 
@@ -221,12 +430,93 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         if (footerView == null || footerView == mFooterView)
             return;
 
+        setFooterViewInternal(footerView);
+        mIsDefaultFooterView = false;
+        mCanRecycleFooterView = false;
+    }
+
+    private void setFooterViewInternal(LoadingView footerView) {
         if (!(footerView instanceof View))
             throw new IllegalArgumentException("footerView must be instance of " + View.class);
 
-        removeView((View) mFooterView);
-        addView((View) footerView);
+        if (mFooterView != null)
+            removeView((View) mFooterView);
+        // 添加到刷新view的下面
+        addView((View) footerView, 0);
         mFooterView = footerView;
+        mFooterMeasureCache.invalidate();
+    }
+
+    /**
+     * 移除当前模式下不可能被拖出来的，内部创建的HeaderView和FooterView，需要的时候会重新创建
+     */
+    private void removeUnreachableLoadingViews() {
+        if (mHeaderView != null && mIsDefaultHeaderView && !isLoadingViewReachable(mHeaderView))
+            removeDefaultHeaderView();
+
+        if (mFooterView != null && mIsDefaultFooterView && !isLoadingViewReachable(mFooterView))
+            removeDefaultFooterView();
+    }
+
+    /**
+     * 移除内部创建的HeaderView，如果设置了复用池则归还
+     */
+    private void removeDefaultHeaderView() {
+        final LoadingView headerView = mHeaderView;
+        removeView((View) headerView);
+        mHeaderView = null;
+        mHeaderMeasureCache.invalidate();
+
+        if (mLoadingViewPool != null && mCanRecycleHeaderView) {
+            resetTranslation((View) headerView);
+            mLoadingViewPool.releaseHeaderView(headerView);
+        }
+    }
+
+    /**
+     * 移除内部创建的FooterView，如果设置了复用池则归还
+     */
+    private void removeDefaultFooterView() {
+        final LoadingView footerView = mFooterView;
+        removeView((View) footerView);
+        mFooterView = null;
+        mFooterMeasureCache.invalidate();
+
+        if (mLoadingViewPool != null && mCanRecycleFooterView) {
+            resetTranslation((View) footerView);
+            mLoadingViewPool.releaseFooterView(footerView);
+        }
+    }
+
+    /**
+     * 设置要支持刷新的view，用于代码创建的时候，xml中的子view会在{@link #onFinishInflate()}中自动设置<br>
+     * view如果没有父view会被添加到当前view中
+     *
+     * @param refreshView
+     */
+    public void setRefreshView(View refreshView) {
+        if (refreshView == null)
+            throw new NullPointerException("refreshView is null");
+
+        if (refreshView == mRefreshView)
+            return;
+
+        if (refreshView == mHeaderView || refreshView == mFooterView)
+            throw new IllegalArgumentException("refreshView can not be HeaderView or FooterView");
+
+        if (refreshView.getParent() != null && refreshView.getParent() != this)
+            throw new IllegalArgumentException("refreshView already has a parent");
+
+        if (mRefreshView != null) {
+            resetTranslation(mRefreshView);
+            removeView(mRefreshView);
+        }
+
+        if (refreshView.getParent() == null)
+            addView(refreshView);
+
+        mRefreshView = refreshView;
+        mRefreshMeasureCache.invalidate();
     }
 
     @Override
@@ -234,6 +524,11 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         return mRefreshView;
     }
 
+    @Override
+    public RefreshToken getRefreshToken() {
+        return mRefreshToken;
+    }
+
     @Override
     public Direction getDirection() {
         return mDirection;
@@ -246,8 +541,8 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
             return 0;
 
         final int topReset = getTopLoadingViewReset(loadingView);
-        final int distance = ((View) loadingView).getTop() - topReset;
-        return Math.abs(distance);
+        final float distance = getLoadingViewTop(loadingView) - topReset;
+        return (int) Math.abs(distance);
     }
 
     //----------PullToRefreshView implements end----------
@@ -268,13 +563,34 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
      */
     protected abstract boolean smoothScroll(int startY, int endY);
 
+    /**
+     * 执行带初速度的滑动逻辑，默认不处理
+     *
+     * @param startY
+     * @param endY
+     * @param velocity 加载view的速度，单位：像素/秒
+     * @return true-触发滑动，false-会调用{@link #smoothScroll(int, int)}
+     */
+    protected boolean flingScroll(int startY, int endY, int velocity) {
+        return false;
+    }
+
     /**
      * 根据当前状态刷新View
      */
     protected final void updateViewByState() {
+        updateViewByState(0);
+    }
+
+    /**
+     * 根据当前状态刷新View
+     *
+     * @param velocity 松手时的拖动速度，单位：像素/秒，不为0的时候会带着速度滑动到目标位置
+     */
+    protected final void updateViewByState(float velocity) {
         final LoadingView loadingView = getLoadingViewByDirection();
 
-        final int startY = ((View) loadingView).getTop();
+        final int startY = Math.round(getLoadingViewTop(loadingView));
         int endY = 0;
 
         switch (getState()) {
@@ -294,7 +610,12 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
             Log.i(getDebugTag(), "updateViewByState " + headerOrFooter + " " + startY + " -> " + endY + " " + getState());
         }
 
-        if (smoothScroll(startY, endY)) {
+        // 按当前位置的阻力换算速度：手指移动1像素时view移动的距离就是速度的比例
+        final int viewVelocity = velocity == 0 ? 0
+                : (int) (getComsumedDistance(Math.signum(velocity)) * Math.abs(velocity));
+
+        if (viewVelocity != 0 && flingScroll(startY, endY, viewVelocity)) {
+        } else if (smoothScroll(startY, endY)) {
         } else {
             dealViewIdle();
         }
@@ -304,6 +625,15 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
      * 处理view由忙碌变成空闲{@link #isViewIdle()}时候需要执行的逻辑
      */
     protected final void dealViewIdle() {
+        final boolean trace = HTrace.beginSection(TRACE_DEAL_VIEW_IDLE);
+        try {
+            dealViewIdleInternal();
+        } finally {
+            HTrace.endSection(trace);
+        }
+    }
+
+    private void dealViewIdleInternal() {
         if (isViewIdle()) {
             if (mIsDebug)
                 Log.i(getDebugTag(), "dealViewIdle:" + mState);
@@ -311,7 +641,8 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
             switch (getState()) {
                 case REFRESHING:
                     requestLayoutIfNeed();
-                    notifyRefreshCallback();
+                    if (!mIsRefreshNotified)
+                        notifyRefreshCallback();
                     break;
                 case PULL_TO_REFRESH:
                 case FINISH:
@@ -334,6 +665,8 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         if (mIsDebug)
             Log.i(getDebugTag(), "notifyRefreshCallback:" + mDirection);
 
+        mIsRefreshNotified = true;
+
         if (mOnRefreshCallback != null) {
             if (mDirection == Direction.FROM_HEADER) {
                 mOnRefreshCallback.onRefreshingFromHeader(this);
@@ -345,12 +678,14 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
 
     protected final boolean canPullFromHeader() {
         return (getMode() == Mode.PULL_BOTH || getMode() == Mode.PULL_FROM_HEADER)
+                && (mRefreshView != null)
                 && (HTouchHelper.isScrollToTop(getRefreshView()))
                 && (checkPullConditionHeader());
     }
 
     protected final boolean canPullFromFooter() {
         return (getMode() == Mode.PULL_BOTH || getMode() == Mode.PULL_FROM_FOOTER)
+                && (mRefreshView != null)
                 && (HTouchHelper.isScrollToBottom(getRefreshView()))
                 && (checkPullConditionFooter());
     }
@@ -369,20 +704,47 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
     }
 
     /**
-     * 返回当前拖动方向对应的加载view
+     * 返回当前拖动方向对应的加载view，如果还未创建则会先创建
      *
      * @return
      */
     protected final LoadingView getLoadingViewByDirection() {
         if (mDirection == Direction.FROM_HEADER) {
-            return mHeaderView;
+            return getHeaderView();
         } else if (mDirection == Direction.FROM_FOOTER) {
-            return mFooterView;
+            return getFooterView();
         } else {
             return null;
         }
     }
 
+    /**
+     * 返回loadingView当前的top值，translation模式下包含translationY
+     *
+     * @param loadingView
+     * @return
+     */
+    private float getLoadingViewTop(LoadingView loadingView) {
+        final View view = (View) loadingView;
+        if (mIsTranslationMode)
+            return view.getTop() + view.getTranslationY();
+        else
+            return view.getTop();
+    }
+
+    /**
+     * 竖直方向移动view，translation模式下只改变translationY
+     *
+     * @param view
+     * @param delta
+     */
+    private void offsetViewVertical(View view, float delta) {
+        if (mIsTranslationMode)
+            view.setTranslationY(view.getTranslationY() + delta);
+        else
+            ViewCompat.offsetTopAndBottom(view, (int) delta);
+    }
+
     /**
      * 移动view
      *
@@ -390,33 +752,58 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
      * @param isDrag true-手指拖动，false-惯性滑动
      * @return
      */
-    protected final boolean moveViews(int delta, boolean isDrag) {
+    protected final boolean moveViews(float delta, boolean isDrag) {
         if (delta == 0)
             return false;
 
+        final boolean trace = HTrace.beginSection(TRACE_MOVE_VIEWS);
+        try {
+            return moveViewsInternal(delta, isDrag);
+        } finally {
+            HTrace.endSection(trace);
+        }
+    }
+
+    private boolean moveViewsInternal(float delta, boolean isDrag) {
         if (isDrag) {
             delta = getComsumedDistance(delta);
-            if (delta == 0)
-                return false;
+
+            if (!mIsTranslationMode) {
+                // 小数部分累加到下一次拖动，避免高采样率下每次的移动距离都被截断为0
+                delta += mDragRemainder;
+                final float legal = (int) delta;
+                mDragRemainder = delta - legal;
+                delta = legal;
+            }
+        } else if (!mIsTranslationMode) {
+            delta = (int) delta;
         }
 
+        if (delta == 0)
+            return false;
+
         checkDirection();
 
         final LoadingView loadingView = getLoadingViewByDirection();
-        final int top = ((View) loadingView).getTop();
+        final float top = getLoadingViewTop(loadingView);
         final int topReset = getTopLoadingViewReset(loadingView);
 
+        final float wanted = delta;
         if (loadingView == mHeaderView) {
-            delta = HTouchHelper.getLegalDelta(top, topReset, Integer.MAX_VALUE, delta);
+            delta = HTouchHelper.getLegalDelta(top, topReset, Float.MAX_VALUE, delta);
         } else if (loadingView == mFooterView) {
-            delta = HTouchHelper.getLegalDelta(top, Integer.MIN_VALUE, topReset, delta);
+            delta = HTouchHelper.getLegalDelta(top, -Float.MAX_VALUE, topReset, delta);
         }
 
+        // 到达边界后不保留小数部分
+        if (delta != wanted)
+            mDragRemainder = 0;
+
         if (delta == 0)
             return false;
 
         // HeaderView or FooterView
-        ViewCompat.offsetTopAndBottom((View) loadingView, delta);
+        offsetViewVertical((View) loadingView, delta);
         loadingView.onViewPositionChanged(this);
 
         // RefreshView
@@ -424,7 +811,7 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
             if (ViewCompat.getZ((View) loadingView) <= ViewCompat.getZ(mRefreshView))
                 ViewCompat.setZ((View) loadingView, ViewCompat.getZ(mRefreshView) + 1);
         } else {
-            ViewCompat.offsetTopAndBottom(mRefreshView, delta);
+            offsetViewVertical(mRefreshView, delta);
         }
 
         if (mOnViewPositionChangeCallback != null)
@@ -452,12 +839,23 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
 
         checkDirection();
 
+        final boolean trace = HTrace.beginSection(TRACE_SET_STATE);
+        try {
+            setStateInternal(state);
+        } finally {
+            HTrace.endSection(trace);
+        }
+    }
+
+    private void setStateInternal(State state) {
         final State oldState = mState;
         mState = state;
 
         if (mIsDebug)
             Log.i(getDebugTag(), "setState:" + mState);
 
+        traceState();
+
         removeCallbacks(mStopRefreshingRunnable);
         if (mState == State.REFRESHING_SUCCESS || mState == State.REFRESHING_FAILURE)
             postDelayed(mStopRefreshingRunnable, mDurationShowRefreshResult);
@@ -471,6 +869,30 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
             mOnStateChangeCallback.onStateChanged(oldState, mState, this);
 
         resetIfNeed();
+        updateRefreshToken(oldState);
+
+        if (mState == State.REFRESHING) {
+            mIsRefreshNotified = false;
+            // 放在最后，回调中有可能立即结束刷新
+            if (mIsNotifyRefreshingImmediately)
+                notifyRefreshCallback();
+        }
+    }
+
+    /**
+     * 结束上一个状态的异步追踪片段，开始当前状态的异步追踪片段
+     */
+    private void traceState() {
+        if (mTraceStateSection != null) {
+            HTrace.endAsyncSection(mTraceStateSection, mTraceCookie);
+            mTraceStateSection = null;
+        }
+
+        if (mState != State.RESET) {
+            final String section = TRACE_STATES[mState.ordinal()];
+            if (HTrace.beginAsyncSection(section, mTraceCookie))
+                mTraceStateSection = section;
+        }
     }
 
     private void resetIfNeed() {
@@ -489,23 +911,33 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
             return;
 
         if (isViewIdle()) {
+            int top = 0;
             boolean layout = false;
             switch (mState) {
                 case REFRESHING:
-                    if (((View) loadingView).getTop() != getTopLoadingViewRefreshing(loadingView))
+                    top = getTopLoadingViewRefreshing(loadingView);
+                    if (getLoadingViewTop(loadingView) != top)
                         layout = true;
                     break;
                 case RESET:
-                    if (((View) loadingView).getTop() != getTopLoadingViewReset(loadingView))
+                    top = getTopLoadingViewReset(loadingView);
+                    if (getLoadingViewTop(loadingView) != top)
                         layout = true;
                     break;
             }
 
             if (layout) {
-                if (mIsDebug)
-                    Log.e(getDebugTag(), "requestLayout with state:" + mState);
+                if (mIsTranslationMode) {
+                    if (mIsDebug)
+                        Log.e(getDebugTag(), "updateTranslation with state:" + mState);
+
+                    updateTranslation(loadingView, top);
+                } else {
+                    if (mIsDebug)
+                        Log.e(getDebugTag(), "requestLayout with state:" + mState);
 
-                requestLayout();
+                    requestLayout();
+                }
             }
         } else {
             if (mIsDebug)
@@ -513,6 +945,122 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         }
     }
 
+    /**
+     * 根据状态变化更新刷新令牌
+     *
+     * @param oldState
+     */
+    private void updateRefreshToken(State oldState) {
+        switch (mState) {
+            case PULL_TO_REFRESH:
+                if (oldState == State.RESET && mOnRefreshLikelyCallback != null)
+                    mOnRefreshLikelyCallback.onPullStarted(mDirection, this);
+                break;
+            case RELEASE_TO_REFRESH:
+                if (mRefreshToken == null && mOnRefreshLikelyCallback != null) {
+                    setRefreshToken(new RefreshToken(mDirection));
+                    mOnRefreshLikelyCallback.onRefreshLikely(mDirection, mRefreshToken, this);
+                }
+                break;
+            case REFRESHING:
+                if (mRefreshToken == null || !mRefreshToken.isActive())
+                    setRefreshToken(new RefreshToken(mDirection));
+                mRefreshToken.promote();
+                break;
+            case RESET:
+                cancelRefreshToken();
+                break;
+        }
+    }
+
+    /**
+     * 设置新的令牌，之前的令牌如果还没有结果会被取消
+     *
+     * @param token
+     */
+    private void setRefreshToken(RefreshToken token) {
+        cancelRefreshToken();
+        mRefreshToken = token;
+    }
+
+    /**
+     * 取消还没有结果的令牌，比如拖动超过刷新距离后又退回刷新距离以内松手，或者刷新被停止
+     */
+    protected final void cancelRefreshToken() {
+        if (mRefreshToken != null) {
+            final RefreshToken token = mRefreshToken;
+            mRefreshToken = null;
+            token.cancel();
+        }
+    }
+
+    /**
+     * translation模式下修正view的位置，布局位置保持不变
+     *
+     * @param loadingView
+     * @param top         loadingView期望的top值
+     */
+    private void updateTranslation(LoadingView loadingView, int top) {
+        final View view = (View) loadingView;
+        final float translation = top - view.getTop();
+        view.setTranslationY(translation);
+        loadingView.onViewPositionChanged(this);
+
+        if (!mIsOverLayMode)
+            mRefreshView.setTranslationY(translation);
+
+        if (mOnViewPositionChangeCallback != null)
+            mOnViewPositionChangeCallback.onViewPositionChanged(this);
+    }
+
+    private Handler mMainHandler;
+
+    /**
+     * 从窗口移除之后再归还加载view，不能在分发移除事件的过程中修改view树
+     */
+    private final Runnable mReleaseLoadingViewsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!ViewCompat.isAttachedToWindow(BasePullToRefreshView.this))
+                releaseLoadingViewsToPool();
+        }
+    };
+
+    /**
+     * 从窗口移除之后取消正在进行的刷新并回到{@link State#RESET}
+     */
+    private final Runnable mResetDetachedRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!ViewCompat.isAttachedToWindow(BasePullToRefreshView.this))
+                resetDetached();
+        }
+    };
+
+    /**
+     * 不在窗口中的时候不执行动画，直接回到{@link State#RESET}，加载view回到初始位置
+     */
+    private void resetDetached() {
+        cancelRefreshToken();
+        if (mState != State.RESET)
+            setState(State.RESET);
+
+        if (mIsTranslationMode) {
+            resetTranslation((View) mHeaderView);
+            resetTranslation((View) mFooterView);
+            resetTranslation(mRefreshView);
+        }
+        setDirection(Direction.NONE);
+        // 不在窗口中的时候手势状态可能还没有变成空闲，requestLayoutIfNeed()不会执行，重新添加到窗口时按初始位置布局
+        requestLayout();
+    }
+
+    private Handler getMainHandler() {
+        if (mMainHandler == null)
+            mMainHandler = new Handler(Looper.getMainLooper());
+        return mMainHandler;
+    }
+
     private final Runnable mStopRefreshingRunnable = new Runnable() {
         @Override
         public void run() {
@@ -537,9 +1085,12 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
                 mDirection = direction;
                 if (mIsDebug)
                     Log.i(getDebugTag(), "setDirection:" + mDirection);
+
+                measureLoadingViewIfNeed(getLoadingViewByDirection());
             }
         } else {
             mDirection = Direction.NONE;
+            mDragRemainder = 0;
             if (mIsDebug)
                 Log.i(getDebugTag(), "setDirection:" + mDirection);
         }
@@ -551,58 +1102,78 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
      * @param distance
      * @return
      */
-    private int getComsumedDistance(float distance) {
-        distance -= distance * mComsumeScrollPercent;
-        return (int) distance;
+    private float getComsumedDistance(float distance) {
+        final LoadingView loadingView = getLoadingViewByDirection();
+        final float scrollDistance = loadingView == null ? 0
+                : Math.abs(getLoadingViewTop(loadingView) - getTopLoadingViewReset(loadingView));
+        return getDragResistance().getDragDistance(distance, scrollDistance, this);
     }
 
     @Override
     protected void onFinishInflate() {
         super.onFinishInflate();
 
-        final int count = getChildCount();
-        if (count < 3)
+        // HeaderView和FooterView按需创建，此时有可能已经被添加
+        View refreshView = null;
+        int count = 0;
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            if (child == mHeaderView || child == mFooterView)
+                continue;
+
+            refreshView = child;
+            count++;
+        }
+
+        if (count < 1)
             throw new IllegalArgumentException("you must add one child to PullToRefreshView in your xml file");
 
-        if (count > 3)
+        if (count > 1)
             throw new IllegalArgumentException("you can only add one child to PullToRefreshView in your xml file");
 
-        mRefreshView = getChildAt(2);
+        setRefreshView(refreshView);
     }
 
-    private void addLoadingViews() {
-        // HeaderView
+    private LoadingView createHeaderView() {
         LoadingView headerView = onCreateHeaderView();
-        if (headerView == null) {
-            final String headerClassName = getResources().getString(R.string.lib_ptr_header_class);
-            headerView = createLoadingViewByClassName(headerClassName);
+        mCanRecycleHeaderView = headerView == null;
+        if (headerView == null && mLoadingViewPool != null) {
+            headerView = mLoadingViewPool.acquireHeaderView(getContext());
         }
         if (headerView == null) {
-            headerView = new SimpleTextLoadingView(getContext());
+            headerView = LoadingViewFactoryRegistry.getHeaderFactory(getContext()).create(getContext());
         }
-        setHeaderView(headerView);
+        return headerView;
+    }
 
-        // FooterView
+    private LoadingView createFooterView() {
         LoadingView footerView = onCreateFooterView();
-        if (footerView == null) {
-            final String footerClassName = getResources().getString(R.string.lib_ptr_footer_class);
-            footerView = createLoadingViewByClassName(footerClassName);
+        mCanRecycleFooterView = footerView == null;
+        if (footerView == null && mLoadingViewPool != null) {
+            footerView = mLoadingViewPool.acquireFooterView(getContext());
         }
         if (footerView == null) {
-            footerView = new SimpleTextLoadingView(getContext());
+            footerView = LoadingViewFactoryRegistry.getFooterFactory(getContext()).create(getContext());
         }
-        setFooterView(footerView);
+        return footerView;
     }
 
-    private LoadingView createLoadingViewByClassName(String className) {
-        try {
-            Class clazz = Class.forName(className);
-            Constructor constructor = clazz.getConstructor(Context.class);
-            return (LoadingView) constructor.newInstance(getContext());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return null;
+    /**
+     * 把内部创建的HeaderView和FooterView归还到复用池，需要的时候会重新借出或者创建
+     */
+    private void releaseLoadingViewsToPool() {
+        if (mLoadingViewPool == null)
+            return;
+
+        // 拖动或者刷新过程中被移除（比如列表复用）的时候先回到初始状态，加载view以RESET的状态归还
+        if (mDirection != Direction.NONE)
+            resetDetached();
+
+        if (mHeaderView != null && mIsDefaultHeaderView && mCanRecycleHeaderView)
+            removeDefaultHeaderView();
+
+        if (mFooterView != null && mIsDefaultFooterView && mCanRecycleFooterView)
+            removeDefaultFooterView();
     }
 
     /**
@@ -625,19 +1196,35 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final boolean trace = HTrace.beginSection(TRACE_MEASURE);
+        try {
+            measureInternal(widthMeasureSpec, heightMeasureSpec);
+        } finally {
+            HTrace.endSection(trace);
+        }
+    }
+
+    private void measureInternal(int widthMeasureSpec, int heightMeasureSpec) {
         final int widthMode = MeasureSpec.getMode(widthMeasureSpec);
         int width = MeasureSpec.getSize(widthMeasureSpec);
 
         final int heightMode = MeasureSpec.getMode(heightMeasureSpec);
         int height = MeasureSpec.getSize(heightMeasureSpec);
 
-        measureChild((View) mHeaderView, widthMeasureSpec, heightMeasureSpec);
-        measureChild((View) mFooterView, widthMeasureSpec, heightMeasureSpec);
-        measureChild(mRefreshView, widthMeasureSpec, heightMeasureSpec);
+        mLastWidthMeasureSpec = widthMeasureSpec;
+        mLastHeightMeasureSpec = heightMeasureSpec;
+        mHasMeasureSpec = true;
+
+        if (mHeaderView != null && isLoadingViewReachable(mHeaderView))
+            measureChildIfNeed((View) mHeaderView, mHeaderMeasureCache, widthMeasureSpec, heightMeasureSpec, mIsLoadingViewFixedSize);
+        if (mFooterView != null && isLoadingViewReachable(mFooterView))
+            measureChildIfNeed((View) mFooterView, mFooterMeasureCache, widthMeasureSpec, heightMeasureSpec, mIsLoadingViewFixedSize);
+        if (mRefreshView != null)
+            measureChildIfNeed(mRefreshView, mRefreshMeasureCache, widthMeasureSpec, heightMeasureSpec, false);
 
         if (widthMode != MeasureSpec.EXACTLY) {
-            int maxWidth = Math.max(((View) mHeaderView).getMeasuredWidth(), ((View) mFooterView).getMeasuredWidth());
-            maxWidth = Math.max(maxWidth, mRefreshView.getMeasuredWidth());
+            int maxWidth = Math.max(getMeasuredWidth(mHeaderView), getMeasuredWidth(mFooterView));
+            maxWidth = Math.max(maxWidth, getMeasuredWidth(mRefreshView));
             maxWidth += (getPaddingLeft() + getPaddingRight());
 
             maxWidth = Math.max(maxWidth, getSuggestedMinimumWidth());
@@ -649,10 +1236,10 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         }
 
         if (heightMode != MeasureSpec.EXACTLY) {
-            int maxHeight = mRefreshView.getMeasuredHeight();
+            int maxHeight = getMeasuredHeight(mRefreshView);
             if (maxHeight == 0) {
                 //如果刷新view的高度为0，则给当前view一个默认高度，否则会出现代码触发刷新的时候HeaderView或者FooterView看不见
-                maxHeight = Math.max(((View) mHeaderView).getMeasuredHeight(), ((View) mFooterView).getMeasuredHeight());
+                maxHeight = Math.max(getMeasuredHeight(mHeaderView), getMeasuredHeight(mFooterView));
             }
             maxHeight += (getPaddingTop() + getPaddingBottom());
 
@@ -667,6 +1254,86 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         setMeasuredDimension(width, height);
     }
 
+    private static int getMeasuredWidth(View view) {
+        return view == null ? 0 : view.getMeasuredWidth();
+    }
+
+    private static int getMeasuredHeight(View view) {
+        return view == null ? 0 : view.getMeasuredHeight();
+    }
+
+    private static int getMeasuredWidth(LoadingView loadingView) {
+        return loadingView == null ? 0 : ((View) loadingView).getMeasuredWidth();
+    }
+
+    private static int getMeasuredHeight(LoadingView loadingView) {
+        return loadingView == null ? 0 : ((View) loadingView).getMeasuredHeight();
+    }
+
+    /**
+     * 测量参数和缓存不一致，或者child请求了重新布局的时候才测量child
+     *
+     * @param child
+     * @param cache
+     * @param widthMeasureSpec
+     * @param heightMeasureSpec
+     * @param ignoreHeight      true-忽略高度测量参数的变化
+     */
+    private void measureChildIfNeed(View child, MeasureCache cache, int widthMeasureSpec, int heightMeasureSpec, boolean ignoreHeight) {
+        final int paddingHorizontal = getPaddingLeft() + getPaddingRight();
+        final int paddingVertical = getPaddingTop() + getPaddingBottom();
+
+        if (cache.needMeasure(child, widthMeasureSpec, heightMeasureSpec, paddingHorizontal, paddingVertical, ignoreHeight)) {
+            measureChild(child, widthMeasureSpec, heightMeasureSpec);
+            cache.save(widthMeasureSpec, heightMeasureSpec, paddingHorizontal, paddingVertical);
+        }
+    }
+
+    /**
+     * 当前模式下loadingView是否可能被拖出来，不可能被拖出来的loadingView不需要测量
+     *
+     * @param loadingView
+     * @return
+     */
+    private boolean isLoadingViewReachable(LoadingView loadingView) {
+        if (loadingView == null) {
+            return false;
+        } else if (loadingView == mHeaderView) {
+            return mDirection == Direction.FROM_HEADER
+                    || mMode == Mode.PULL_BOTH || mMode == Mode.PULL_FROM_HEADER;
+        } else if (loadingView == mFooterView) {
+            return mDirection == Direction.FROM_FOOTER
+                    || mMode == Mode.PULL_BOTH || mMode == Mode.PULL_FROM_FOOTER;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * 如果loadingView因为模式限制没有被测量过，则用最近一次的测量参数测量并摆放到初始位置
+     *
+     * @param loadingView
+     */
+    private void measureLoadingViewIfNeed(LoadingView loadingView) {
+        if (!mHasMeasureSpec || loadingView == null)
+            return;
+
+        final View view = (View) loadingView;
+        final MeasureCache cache = loadingView == mHeaderView ? mHeaderMeasureCache : mFooterMeasureCache;
+        if (!cache.needMeasure(view, mLastWidthMeasureSpec, mLastHeightMeasureSpec,
+                getPaddingLeft() + getPaddingRight(), getPaddingTop() + getPaddingBottom(), mIsLoadingViewFixedSize))
+            return;
+
+        measureChildIfNeed(view, cache, mLastWidthMeasureSpec, mLastHeightMeasureSpec, mIsLoadingViewFixedSize);
+
+        final int left = getPaddingLeft();
+        final int top = getTopLoadingViewReset(loadingView);
+        view.layout(left, top, left + view.getMeasuredWidth(), top + view.getMeasuredHeight());
+
+        if (mIsDebugLayout)
+            Log.i(getDebugTag(), "measureLoadingViewIfNeed " + top + " -> " + view.getMeasuredHeight());
+    }
+
     /**
      * 返回与当前view顶部对齐的值
      *
@@ -692,7 +1359,9 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
      * @return
      */
     private int getTopLoadingViewReset(LoadingView loadingView) {
-        if (loadingView == mHeaderView) {
+        if (loadingView == null) {
+            throw new NullPointerException("loadingView is null");
+        } else if (loadingView == mHeaderView) {
             return getTopAlignTop() - ((View) mHeaderView).getMeasuredHeight();
         } else if (loadingView == mFooterView) {
             return getTopAlignBottom();
@@ -723,7 +1392,8 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         // 初始值
         int top = getTopLoadingViewReset(mHeaderView);
 
-        if (mDirection == Direction.FROM_HEADER) {
+        if (mIsTranslationMode) {
+        } else if (mDirection == Direction.FROM_HEADER) {
             if (isViewIdle()) {
                 switch (mState) {
                     case REFRESHING:
@@ -743,7 +1413,8 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         // 初始值
         int top = getTopLoadingViewReset(mFooterView);
 
-        if (mDirection == Direction.FROM_FOOTER) {
+        if (mIsTranslationMode) {
+        } else if (mDirection == Direction.FROM_FOOTER) {
             if (isViewIdle()) {
                 switch (mState) {
                     case REFRESHING:
@@ -763,7 +1434,7 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         // 初始值
         int top = getTopAlignTop();
 
-        if (mIsOverLayMode) {
+        if (mIsOverLayMode || mIsTranslationMode) {
         } else {
             if (isViewIdle()) {
                 switch (mState) {
@@ -789,7 +1460,12 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         if (mIsDebugLayout)
             Log.i(getDebugTag(), "onLayout");
 
-        layoutInternal();
+        final boolean trace = HTrace.beginSection(TRACE_LAYOUT);
+        try {
+            layoutInternal();
+        } finally {
+            HTrace.endSection(trace);
+        }
     }
 
     private void layoutInternal() {
@@ -804,41 +1480,101 @@ public abstract class BasePullToRefreshView extends ViewGroup implements PullToR
         int bottom = 0;
 
         // HeaderView
-        top = getTopLayoutHeaderView();
-        right = left + ((View) mHeaderView).getMeasuredWidth();
-        bottom = top + ((View) mHeaderView).getMeasuredHeight();
-        ((View) mHeaderView).layout(left, top, right, bottom);
-        if (mIsDebugLayout)
-            logString += "HeaderView:" + top + "," + bottom + " -> " + (bottom - top) + "\r\n";
+        if (mHeaderView != null) {
+            top = getTopLayoutHeaderView();
+            right = left + ((View) mHeaderView).getMeasuredWidth();
+            bottom = top + ((View) mHeaderView).getMeasuredHeight();
+            ((View) mHeaderView).layout(left, top, right, bottom);
+            if (mIsDebugLayout)
+                logString += "HeaderView:" + top + "," + bottom + " -> " + (bottom - top) + "\r\n";
+        } else {
+            bottom = getTopAlignTop();
+        }
 
         // RefreshView
-        top = getTopLayoutRefreshView();
-        if (!mIsOverLayMode && mDirection == Direction.FROM_HEADER && bottom > top) {
-            top = bottom;
+        if (mRefreshView != null) {
+            top = getTopLayoutRefreshView();
+            if (!mIsOverLayMode && mDirection == Direction.FROM_HEADER && bottom > top) {
+                top = bottom;
+            }
+            right = left + mRefreshView.getMeasuredWidth();
+            bottom = top + mRefreshView.getMeasuredHeight();
+            mRefreshView.layout(left, top, right, bottom);
+            if (mIsDebugLayout)
+                logString += "RefreshView:" + top + "," + bottom + " -> " + (bottom - top) + "\r\n";
         }
-        right = left + mRefreshView.getMeasuredWidth();
-        bottom = top + mRefreshView.getMeasuredHeight();
-        mRefreshView.layout(left, top, right, bottom);
-        if (mIsDebugLayout)
-            logString += "RefreshView:" + top + "," + bottom + " -> " + (bottom - top) + "\r\n";
 
         // FooterView
-        top = getTopLayoutFooterView();
-        if (!mIsOverLayMode && bottom <= getTopAlignBottom() && bottom > top) {
-            top = bottom;
-        }
-        right = left + ((View) mFooterView).getMeasuredWidth();
-        bottom = top + ((View) mFooterView).getMeasuredHeight();
-        ((View) mFooterView).layout(left, top, right, bottom);
-        if (mIsDebugLayout) {
-            logString += "FooterView:" + top + "," + bottom + " -> " + (bottom - top);
-            Log.i(getDebugTag(), logString);
+        if (mFooterView != null) {
+            top = getTopLayoutFooterView();
+            if (!mIsOverLayMode && bottom <= getTopAlignBottom() && bottom > top) {
+                top = bottom;
+            }
+            right = left + ((View) mFooterView).getMeasuredWidth();
+            bottom = top + ((View) mFooterView).getMeasuredHeight();
+            ((View) mFooterView).layout(left, top, right, bottom);
+            if (mIsDebugLayout)
+                logString += "FooterView:" + top + "," + bottom + " -> " + (bottom - top);
         }
+
+        if (mIsDebugLayout)
+            Log.i(getDebugTag(), logString);
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
         removeCallbacks(mStopRefreshingRunnable);
+        // 移除后可能马上又添加到窗口（比如RecyclerView、ViewPager中复用），确实移除之后再取消刷新
+        getMainHandler().post(mResetDetachedRunnable);
+        if (mLoadingViewPool != null)
+            getMainHandler().post(mReleaseLoadingViewsRunnable);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // 移除后马上又添加到窗口（比如RecyclerView中复用），不需要归还
+        if (mMainHandler != null) {
+            mMainHandler.removeCallbacks(mResetDetachedRunnable);
+            mMainHandler.removeCallbacks(mReleaseLoadingViewsRunnable);
+        }
+    }
+
+    /**
+     * 子view的测量缓存
+     */
+    private static final class MeasureCache {
+        private int mWidthMeasureSpec;
+        private int mHeightMeasureSpec;
+        private int mPaddingHorizontal;
+        private int mPaddingVertical;
+        private boolean mValid;
+
+        public boolean needMeasure(View child, int widthMeasureSpec, int heightMeasureSpec,
+                                   int paddingHorizontal, int paddingVertical, boolean ignoreHeight) {
+            if (!mValid || child.isLayoutRequested())
+                return true;
+
+            if (mWidthMeasureSpec != widthMeasureSpec || mPaddingHorizontal != paddingHorizontal)
+                return true;
+
+            if (ignoreHeight)
+                return false;
+
+            return mHeightMeasureSpec != heightMeasureSpec || mPaddingVertical != paddingVertical;
+        }
+
+        public void save(int widthMeasureSpec, int heightMeasureSpec, int paddingHorizontal, int paddingVertical) {
+            mWidthMeasureSpec = widthMeasureSpec;
+            mHeightMeasureSpec = heightMeasureSpec;
+            mPaddingHorizontal = paddingHorizontal;
+            mPaddingVertical = paddingVertical;
+            mValid = true;
+        }
+
+        public void invalidate() {
+            mValid = false;
+        }
     }
 }
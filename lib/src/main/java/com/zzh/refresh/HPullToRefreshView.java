@@ -8,14 +8,24 @@ import androidx.core.view.NestedScrollingParentHelper;
 import androidx.core.view.ViewCompat;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.Display;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.WindowManager;
 
+import com.zzh.refresh.gesture.AnimationClock;
+import com.zzh.refresh.gesture.HAnimationDriver;
+import com.zzh.refresh.gesture.HFrameMetrics;
+import com.zzh.refresh.gesture.HGestureClassifier;
 import com.zzh.refresh.gesture.HGestureManager;
+import com.zzh.refresh.gesture.HScroller;
 import com.zzh.refresh.gesture.HTouchHelper;
+import com.zzh.refresh.gesture.SplineScrollerApi;
+import com.zzh.refresh.gesture.SpringScrollerApi;
 import com.zzh.refresh.loadingview.LoadingView;
+import com.zzh.refresh.loadingview.LoadingViewPool;
 
 /**
  *
@@ -27,12 +37,53 @@ import com.zzh.refresh.loadingview.LoadingView;
  */
 public class HPullToRefreshView extends BasePullToRefreshView implements NestedScrollingParent, NestedScrollingChild {
     private HGestureManager mGestureManager;
-    private final int mTouchSlop;
+    private final HGestureClassifier mGestureClassifier;
+    private final int mMaximumFlingVelocity;
+    /**
+     * 松手时超过这个速度会触发刷新，单位：像素/秒，0表示不启用
+     */
+    private int mRefreshFlingVelocity;
+    /**
+     * 嵌套滚动松手时的速度
+     */
+    private float mNestedFlingVelocity;
+    private HFrameMetrics mFrameMetrics;
+    private HAnimationDriver mAnimationDriver;
+    private boolean mIsVsyncAnimationDriver;
+    /**
+     * 是否通过{@link #setScrollerApi(HScroller.ScrollerApi)}设置过滚动实现
+     */
+    private boolean mIsCustomScrollerApi;
+    /**
+     * 拖动预测时长（毫秒），0表示不预测
+     */
+    private int mDragPredictTime;
+    /**
+     * 上一次拖动时预测位置和手指实际位置的差值
+     */
+    private float mLastPredictOffset;
+    /**
+     * 屏幕刷新率，添加到窗口的时候更新
+     */
+    private float mRefreshRate;
+    /**
+     * 一帧的时长（毫秒），和{@link #mRefreshRate}一起更新
+     */
+    private int mFrameInterval;
+
+    public HPullToRefreshView(Context context) {
+        this(context, null);
+    }
 
     public HPullToRefreshView(Context context, AttributeSet attrs) {
         super(context, attrs);
         setNestedScrollingEnabled(true);
-        mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        final ViewConfiguration configuration = ViewConfiguration.get(context);
+        mGestureClassifier = new HGestureClassifier(configuration.getScaledTouchSlop());
+        mMaximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+
+        final WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        updateRefreshRate(windowManager != null ? windowManager.getDefaultDisplay() : null);
     }
 
     @Override
@@ -41,32 +92,241 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
         getGestureManager().setDebug(debug);
     }
 
+    /**
+     * 设置是否统计拖动和滚动期间的帧率（默认false），统计结果通过{@link #getFrameMetrics()}获取
+     *
+     * @param enabled
+     */
+    public void setFrameMetricsEnabled(boolean enabled) {
+        if (enabled) {
+            getFrameMetrics().setEnabled(true);
+        } else if (mFrameMetrics != null) {
+            mFrameMetrics.setEnabled(false);
+        }
+    }
+
+    /**
+     * 返回帧率统计对象，可以获取统计快照、清空统计数据或者设置统计回调
+     *
+     * @return
+     */
+    public HFrameMetrics getFrameMetrics() {
+        if (mFrameMetrics == null) {
+            mFrameMetrics = new HFrameMetrics(getContext());
+            mFrameMetrics.setEnabled(false);
+            mFrameMetrics.setRefreshRate(mRefreshRate);
+        }
+        return mFrameMetrics;
+    }
+
+    /**
+     * 设置触发刷新的松手速度（默认0，不启用）<br>
+     * 向拖动方向快速滑动松手的时候，即使拖动距离还不够{@link LoadingView#canRefresh(int)}也会触发刷新
+     *
+     * @param velocity 单位：像素/秒
+     */
+    public void setRefreshFlingVelocity(int velocity) {
+        if (velocity < 0)
+            throw new IllegalArgumentException("velocity >= 0 required");
+
+        mRefreshFlingVelocity = velocity;
+    }
+
+    /**
+     * 设置拖动时是否预测手指的位置（默认false）<br>
+     * 开启后按最近的触摸采样点把加载view移动到下一次垂直同步时手指预计的位置，可以减少大约一帧的跟手延迟，
+     * 手指突然变速的时候可能会有轻微的超出
+     *
+     * @param enabled
+     */
+    public void setDragPrediction(boolean enabled) {
+        mDragPredictTime = enabled ? Math.min(mFrameInterval, HTouchHelper.MAX_PREDICT_TIME) : 0;
+        mLastPredictOffset = 0;
+    }
+
+    /**
+     * 更新屏幕刷新率和一帧的时长，只在创建和添加到窗口的时候查询屏幕，不在触摸过程中查询
+     *
+     * @param display
+     */
+    private void updateRefreshRate(Display display) {
+        final float refreshRate = HFrameMetrics.getRefreshRate(display);
+        if (refreshRate == mRefreshRate)
+            return;
+
+        mRefreshRate = refreshRate;
+        mFrameInterval = Math.max(1, Math.round(1000 / refreshRate));
+
+        if (mDragPredictTime > 0)
+            mDragPredictTime = Math.min(mFrameInterval, HTouchHelper.MAX_PREDICT_TIME);
+        if (mFrameMetrics != null)
+            mFrameMetrics.setRefreshRate(refreshRate);
+    }
+
+    /**
+     * 返回这次拖动事件的增量，开启了拖动预测的时候返回和上一次预测位置之间的增量
+     *
+     * @return
+     */
+    private float getDragDeltaY() {
+        final HTouchHelper touchHelper = getGestureManager().getTouchHelper();
+        if (mDragPredictTime <= 0)
+            return touchHelper.getDeltaY();
+
+        // 用相对实际位置的差值计算，换手指的时候实际位置的增量为0，不会跳动
+        final float offset = touchHelper.getPredictedY(mDragPredictTime) - touchHelper.getCurrentY();
+        final float delta = touchHelper.getDeltaY() + offset - mLastPredictOffset;
+        mLastPredictOffset = offset;
+        return delta;
+    }
+
+    /**
+     * 返回手势分类对象，可以设置下拉和上拉的角度、最小滑动距离和是否锁定方向
+     *
+     * @return
+     */
+    public HGestureClassifier getGestureClassifier() {
+        return mGestureClassifier;
+    }
+
+    /**
+     * 设置滚动的实现，比如{@link SpringScrollerApi}，默认使用{@link android.widget.Scroller}，会停止当前的滚动<br>
+     * 实现了{@link HScroller.ClockScrollerApi}的滚动实现会被设置为{@link #getAnimationClock()}
+     *
+     * @param scrollerApi
+     */
+    public void setScrollerApi(HScroller.ScrollerApi scrollerApi) {
+        final HScroller scroller = getGestureManager().getScroller();
+        scroller.abortAnimation();
+        scroller.setScrollerApi(scrollerApi);
+        mIsCustomScrollerApi = true;
+        updateScrollerClock();
+    }
+
+    /**
+     * 把当前的时间源设置给滚动实现
+     */
+    private void updateScrollerClock() {
+        final HScroller.ScrollerApi scrollerApi = getGestureManager().getScroller().getScrollerApi();
+        if (scrollerApi instanceof HScroller.ClockScrollerApi)
+            ((HScroller.ClockScrollerApi) scrollerApi).setAnimationClock(getAnimationClock());
+    }
+
+    /**
+     * 开启帧回调驱动后，默认的{@link android.widget.Scroller}不能使用帧时间，在下一次滚动开始前换成曲线相同的{@link SplineScrollerApi}
+     */
+    private void prepareScrollerApi() {
+        if (!mIsVsyncAnimationDriver || mIsCustomScrollerApi)
+            return;
+
+        final HScroller scroller = getGestureManager().getScroller();
+        if (scroller.getScrollerApi() instanceof SplineScrollerApi)
+            return;
+
+        scroller.abortAnimation();
+        scroller.setScrollerApi(new SplineScrollerApi(getResources().getDisplayMetrics().density, getAnimationClock()));
+    }
+
+    /**
+     * 设置是否通过{@link android.view.Choreographer}的帧回调驱动滚动（默认false），低于API 16不支持<br>
+     * 开启后每帧用垂直同步的帧时间计算位置，不再通过重绘当前view的{@link #computeScroll()}推进滚动<br>
+     * 只有实现了{@link HScroller.ClockScrollerApi}的滚动实现（{@link SpringScrollerApi}、{@link SplineScrollerApi}）会使用帧时间，
+     * 默认的{@link android.widget.Scroller}在下一次滚动开始时换成曲线相同的{@link SplineScrollerApi}，
+     * 其他自定义的滚动实现仍然使用自己的时间，可以使用{@link #getAnimationClock()}作为时间源
+     *
+     * @param enabled
+     */
+    public void setVsyncAnimationDriver(boolean enabled) {
+        if (enabled && !HAnimationDriver.isSupported())
+            return;
+
+        if (mIsVsyncAnimationDriver == enabled)
+            return;
+
+        mIsVsyncAnimationDriver = enabled;
+        updateScrollerClock();
+
+        final boolean isScrolling = !getGestureManager().getScroller().isFinished();
+        if (enabled) {
+            if (isScrolling)
+                getAnimationDriver().start();
+        } else {
+            if (mAnimationDriver != null)
+                mAnimationDriver.stop();
+            if (isScrolling)
+                ViewCompat.postInvalidateOnAnimation(this);
+        }
+    }
+
+    /**
+     * 返回滚动使用的时间源，开启{@link #setVsyncAnimationDriver(boolean)}后为帧时间
+     *
+     * @return
+     */
+    public AnimationClock getAnimationClock() {
+        return mIsVsyncAnimationDriver ? getAnimationDriver().getClock() : HScroller.ANIMATION_CLOCK;
+    }
+
+    private HAnimationDriver getAnimationDriver() {
+        if (mAnimationDriver == null) {
+            mAnimationDriver = new HAnimationDriver(new HAnimationDriver.Callback() {
+                @Override
+                public boolean onFrame() {
+                    return getGestureManager().getScroller().computeScrollOffset();
+                }
+            });
+        }
+        return mAnimationDriver;
+    }
+
+    private void startFrameMetrics(HFrameMetrics.Type type) {
+        if (mFrameMetrics != null)
+            mFrameMetrics.start(type);
+    }
+
+    private void stopFrameMetrics() {
+        if (mFrameMetrics != null)
+            mFrameMetrics.stop();
+    }
+
     private HGestureManager getGestureManager() {
         if (mGestureManager == null) {
             mGestureManager = new HGestureManager(this, new HGestureManager.Callback() {
+                @Override
+                public void onEventStart(MotionEvent event) {
+                    resetPullVerdict();
+                }
+
                 @Override
                 public boolean shouldInterceptEvent(MotionEvent event) {
-                    return canPull();
+                    return canPull(event);
                 }
 
                 @Override
                 public boolean shouldConsumeEvent(MotionEvent event) {
-                    return mGestureManager.getTagHolder().isTagIntercept() || canPull();
+                    return mGestureManager.getTagHolder().isTagIntercept() || canPull(event);
                 }
 
                 @Override
                 public void onEventConsume(MotionEvent event) {
-                    final int dy = (int) getGestureManager().getTouchHelper().getDeltaY();
+                    // 不截断，小数部分由moveViews累加
+                    final float dy = getDragDeltaY();
                     moveViews(dy, true);
                 }
 
                 @Override
                 public void onEventFinish(VelocityTracker velocityTracker, MotionEvent event) {
+                    mLastPredictOffset = 0;
                     if (mGestureManager.getLifecycleInfo().hasConsumeEvent()) {
                         if (mIsDebug)
-                            Log.e(getDebugTag(), "onConsumeEventFinish:" + event.getAction() + " " + getState());
-
-                        processDragFinish();
+                            Log.e(getDebugTag(), "onConsumeEventFinish:" + event.getActionMasked() + " " + getState());
+
+                        float velocity = 0;
+                        if (event.getActionMasked() == MotionEvent.ACTION_UP) {
+                            velocityTracker.computeCurrentVelocity(1000, mMaximumFlingVelocity);
+                            velocity = velocityTracker.getYVelocity(getGestureManager().getTouchHelper().getActivePointerId());
+                        }
+                        processDragFinish(velocity);
                     }
                 }
 
@@ -74,11 +334,17 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
                 public void onStateChanged(HGestureManager.State oldState, HGestureManager.State newState) {
                     switch (newState) {
                         case Consume:
+                            startFrameMetrics(HFrameMetrics.Type.Pull);
                             break;
                         case Fling:
-                            ViewCompat.postInvalidateOnAnimation(HPullToRefreshView.this);
+                            startFrameMetrics(HFrameMetrics.Type.Settle);
+                            if (mIsVsyncAnimationDriver)
+                                getAnimationDriver().start();
+                            else
+                                ViewCompat.postInvalidateOnAnimation(HPullToRefreshView.this);
                             break;
                         case Idle:
+                            stopFrameMetrics();
                             dealViewIdle();
                             break;
                     }
@@ -111,11 +377,33 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
         return mGestureManager;
     }
 
-    private void processDragFinish() {
+    /**
+     * 拖动结束
+     *
+     * @param velocity 松手时的速度，单位：像素/秒，大于0-向下，小于0-向上
+     */
+    private void processDragFinish(float velocity) {
+        if (getState() == State.PULL_TO_REFRESH && isRefreshFling(velocity))
+            setState(State.RELEASE_TO_REFRESH);
+
         if (getState() == State.RELEASE_TO_REFRESH)
             setState(State.REFRESHING);
+        else
+            cancelRefreshToken();
+
+        updateViewByState(velocity);
+    }
 
-        updateViewByState();
+    private boolean isRefreshFling(float velocity) {
+        if (mRefreshFlingVelocity <= 0)
+            return false;
+
+        if (getDirection() == Direction.FROM_HEADER)
+            return velocity >= mRefreshFlingVelocity;
+        else if (getDirection() == Direction.FROM_FOOTER)
+            return velocity <= -mRefreshFlingVelocity;
+        else
+            return false;
     }
 
     /**
@@ -136,18 +424,45 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
         }
     }
 
-    private boolean canPull() {
-        final boolean checkDegree = getGestureManager().getTouchHelper().getDegreeYFromDown() < 30;
-        if (!checkDegree)
+    //---------- Pull Verdict Start ----------
+
+    /**
+     * 这次手势是否已经确定不能拖动（超过最小滑动距离后角度不满足），确定后这次手势不再检查
+     */
+    private boolean mIsPullRejected;
+    /**
+     * 边界检查结果对应的帧序号（事件时间 / {@link #mFrameInterval}），同一帧时长内的事件只检查一次，边界检查的结果不锁定到整个手势
+     */
+    private long mPullBoundaryFrame = -1;
+    private int mCanPullFromHeaderCache = PULL_BOUNDARY_UNKNOWN;
+    private int mCanPullFromFooterCache = PULL_BOUNDARY_UNKNOWN;
+
+    private static final int PULL_BOUNDARY_UNKNOWN = 0;
+    private static final int PULL_BOUNDARY_TRUE = 1;
+    private static final int PULL_BOUNDARY_FALSE = 2;
+
+    /**
+     * 重置这次手势的判断结果
+     */
+    private void resetPullVerdict() {
+        mIsPullRejected = false;
+        mPullBoundaryFrame = -1;
+    }
+
+    private boolean canPull(MotionEvent event) {
+        if (mIsPullRejected)
             return false;
 
-        final int deltaY = (int) getGestureManager().getTouchHelper().getDeltaYFromDown();
-        final boolean checkPullDelta = Math.abs(deltaY) > mTouchSlop;
-        if (!checkPullDelta)
+        final HTouchHelper touchHelper = getGestureManager().getTouchHelper();
+        final float deltaY = touchHelper.getDeltaYFromDown();
+        final HGestureClassifier.Result result = mGestureClassifier.classify(touchHelper.getDeltaXFromDown(), deltaY);
+        if (result == HGestureClassifier.Result.REJECT) {
+            // 超过最小滑动距离后方向不满足，这次手势属于内容滚动
+            mIsPullRejected = true;
             return false;
+        }
 
-        final boolean checkPull = (canPullFromHeader() && deltaY > 0) || (canPullFromFooter() && deltaY < 0);
-        if (!checkPull)
+        if (result == HGestureClassifier.Result.UNDECIDED)
             return false;
 
         final boolean checkState = getState() == State.RESET;
@@ -158,10 +473,51 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
         if (!checkNotNestedScroll)
             return false;
 
-        setDirectionByDelta(deltaY);
+        final long frame = event.getEventTime() / mFrameInterval;
+        final boolean checkPull = result == HGestureClassifier.Result.PULL_HEADER ? canPullFromHeaderInFrame(frame) : canPullFromFooterInFrame(frame);
+        if (!checkPull)
+            return false;
+
+        setDirectionByDelta(result == HGestureClassifier.Result.PULL_HEADER ? 1 : -1);
         return true;
     }
 
+    private void checkPullBoundaryFrame(long frame) {
+        if (mPullBoundaryFrame != frame) {
+            mPullBoundaryFrame = frame;
+            mCanPullFromHeaderCache = PULL_BOUNDARY_UNKNOWN;
+            mCanPullFromFooterCache = PULL_BOUNDARY_UNKNOWN;
+        }
+    }
+
+    /**
+     * {@link #canPullFromHeader()}，同一帧内只检查一次
+     *
+     * @param frame 事件所在的帧序号
+     * @return
+     */
+    private boolean canPullFromHeaderInFrame(long frame) {
+        checkPullBoundaryFrame(frame);
+        if (mCanPullFromHeaderCache == PULL_BOUNDARY_UNKNOWN)
+            mCanPullFromHeaderCache = canPullFromHeader() ? PULL_BOUNDARY_TRUE : PULL_BOUNDARY_FALSE;
+        return mCanPullFromHeaderCache == PULL_BOUNDARY_TRUE;
+    }
+
+    /**
+     * {@link #canPullFromFooter()}，同一帧内只检查一次
+     *
+     * @param frame 事件所在的帧序号
+     * @return
+     */
+    private boolean canPullFromFooterInFrame(long frame) {
+        checkPullBoundaryFrame(frame);
+        if (mCanPullFromFooterCache == PULL_BOUNDARY_UNKNOWN)
+            mCanPullFromFooterCache = canPullFromFooter() ? PULL_BOUNDARY_TRUE : PULL_BOUNDARY_FALSE;
+        return mCanPullFromFooterCache == PULL_BOUNDARY_TRUE;
+    }
+
+    //---------- Pull Verdict End ----------
+
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
         return getGestureManager().onInterceptTouchEvent(ev);
@@ -174,6 +530,9 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
 
     @Override
     public void computeScroll() {
+        if (mIsVsyncAnimationDriver)
+            return;
+
         if (getGestureManager().getScroller().computeScrollOffset())
             ViewCompat.postInvalidateOnAnimation(this);
     }
@@ -193,13 +552,42 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
 
     @Override
     protected boolean smoothScroll(int startY, int endY) {
-        return getGestureManager().getScroller().scrollToY(startY, endY, -1);
+        prepareScrollerApi();
+        return startAnimationDriverIfNeed(getGestureManager().getScroller().scrollToY(startY, endY, -1));
+    }
+
+    @Override
+    protected boolean flingScroll(int startY, int endY, int velocity) {
+        prepareScrollerApi();
+        return startAnimationDriverIfNeed(getGestureManager().getScroller().flingToY(startY, endY, velocity));
+    }
+
+    /**
+     * 滚动中重新提交滚动任务的时候状态不会变化，需要确保帧回调在运行
+     *
+     * @param scroll
+     * @return
+     */
+    private boolean startAnimationDriverIfNeed(boolean scroll) {
+        if (scroll && mIsVsyncAnimationDriver)
+            getAnimationDriver().start();
+        return scroll;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateRefreshRate(ViewCompat.getDisplay(this));
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
         getGestureManager().getScroller().abortAnimation();
+        getGestureManager().releaseVelocityTracker();
+        if (mAnimationDriver != null)
+            mAnimationDriver.stop();
+        stopFrameMetrics();
     }
 
     private final NestedScrollingParentHelper mNestedScrollingParentHelper = new NestedScrollingParentHelper(this);
@@ -250,6 +638,7 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
         mNestedScrollingParentHelper.onNestedScrollAccepted(child, target, axes);
         startNestedScroll(axes & ViewCompat.SCROLL_AXIS_VERTICAL);
         mIsNestedScrollStarted = true;
+        mNestedFlingVelocity = 0;
     }
 
     @Override
@@ -262,7 +651,12 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
 
         if (mNeedConsumeNestedScroll) {
             mNeedConsumeNestedScroll = false;
-            processDragFinish();
+            final float velocity = mNestedFlingVelocity;
+            mNestedFlingVelocity = 0;
+            processDragFinish(velocity);
+
+            if (getGestureManager().getState() != HGestureManager.State.Fling)
+                stopFrameMetrics();
         }
 
         stopNestedScroll();
@@ -306,6 +700,7 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
 
             if (getDirection() != Direction.NONE) {
                 mNeedConsumeNestedScroll = true;
+                startFrameMetrics(HFrameMetrics.Type.Pull);
                 if (mIsDebug)
                     Log.i(getDebugTag(), "onNestedScroll need consume");
             }
@@ -314,6 +709,10 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
 
     @Override
     public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+        // 嵌套滚动的速度和拖动方向相反
+        if (mNeedConsumeNestedScroll)
+            mNestedFlingVelocity = -velocityY;
+
         return dispatchNestedPreFling(velocityX, velocityY);
     }
 
@@ -377,4 +776,174 @@ public class HPullToRefreshView extends BasePullToRefreshView implements NestedS
     }
 
     //---------- NestedScrollingChild End ----------
+
+    //---------- Builder Start ----------
+
+    /**
+     * 代码创建刷新控件，不经过xml解析，适合在RecyclerView的item或者其他动态界面中创建
+     */
+    public static final class Builder {
+        private final Context mContext;
+
+        private View mRefreshView;
+        private LoadingView mHeaderView;
+        private LoadingView mFooterView;
+        private LoadingViewPool mLoadingViewPool;
+
+        private Mode mMode = Mode.PULL_BOTH;
+        private boolean mIsOverLayMode = false;
+        private boolean mIsTranslationMode = false;
+        private boolean mIsLoadingViewFixedSize = false;
+        private float mComsumeScrollPercent = DEFAULT_COMSUME_SCROLL_PERCENT;
+        private int mDurationShowRefreshResult = DEFAULT_DURATION_SHOW_REFRESH_RESULT;
+
+        private OnRefreshCallback mOnRefreshCallback;
+        private OnStateChangeCallback mOnStateChangeCallback;
+        private OnViewPositionChangeCallback mOnViewPositionChangeCallback;
+        private OnRefreshLikelyCallback mOnRefreshLikelyCallback;
+        private PullCondition mPullCondition;
+
+        public Builder(Context context) {
+            if (context == null)
+                throw new NullPointerException("context is null");
+
+            mContext = context;
+        }
+
+        /**
+         * 设置要支持刷新的view（必须设置）
+         *
+         * @param refreshView
+         * @return
+         */
+        public Builder setRefreshView(View refreshView) {
+            mRefreshView = refreshView;
+            return this;
+        }
+
+        /**
+         * 设置HeaderView，不设置的话第一次需要的时候按默认的方式创建
+         *
+         * @param headerView
+         * @return
+         */
+        public Builder setHeaderView(LoadingView headerView) {
+            mHeaderView = headerView;
+            return this;
+        }
+
+        /**
+         * 设置FooterView，不设置的话第一次需要的时候按默认的方式创建
+         *
+         * @param footerView
+         * @return
+         */
+        public Builder setFooterView(LoadingView footerView) {
+            mFooterView = footerView;
+            return this;
+        }
+
+        public Builder setLoadingViewPool(LoadingViewPool pool) {
+            mLoadingViewPool = pool;
+            return this;
+        }
+
+        public Builder setMode(Mode mode) {
+            if (mode == null)
+                throw new NullPointerException("mode is null");
+
+            mMode = mode;
+            return this;
+        }
+
+        public Builder setOverLayMode(boolean overLayMode) {
+            mIsOverLayMode = overLayMode;
+            return this;
+        }
+
+        public Builder setTranslationMode(boolean translationMode) {
+            mIsTranslationMode = translationMode;
+            return this;
+        }
+
+        public Builder setLoadingViewFixedSize(boolean fixedSize) {
+            mIsLoadingViewFixedSize = fixedSize;
+            return this;
+        }
+
+        public Builder setComsumeScrollPercent(float percent) {
+            if (percent < 0 || percent > 1)
+                throw new IllegalArgumentException("percent >= 0 && percent <= 1 required");
+
+            mComsumeScrollPercent = percent;
+            return this;
+        }
+
+        public Builder setDurationShowRefreshResult(int duration) {
+            if (duration <= 0)
+                throw new IllegalArgumentException("duration > 0 required");
+
+            mDurationShowRefreshResult = duration;
+            return this;
+        }
+
+        public Builder setOnRefreshCallback(OnRefreshCallback onRefreshCallback) {
+            mOnRefreshCallback = onRefreshCallback;
+            return this;
+        }
+
+        public Builder setOnStateChangeCallback(OnStateChangeCallback onStateChangeCallback) {
+            mOnStateChangeCallback = onStateChangeCallback;
+            return this;
+        }
+
+        public Builder setOnViewPositionChangeCallback(OnViewPositionChangeCallback onViewPositionChangeCallback) {
+            mOnViewPositionChangeCallback = onViewPositionChangeCallback;
+            return this;
+        }
+
+        public Builder setOnRefreshLikelyCallback(OnRefreshLikelyCallback onRefreshLikelyCallback) {
+            mOnRefreshLikelyCallback = onRefreshLikelyCallback;
+            return this;
+        }
+
+        public Builder setPullCondition(PullCondition pullCondition) {
+            mPullCondition = pullCondition;
+            return this;
+        }
+
+        /**
+         * 创建刷新控件
+         *
+         * @return
+         */
+        public HPullToRefreshView build() {
+            if (mRefreshView == null)
+                throw new NullPointerException("refreshView is null");
+
+            final HPullToRefreshView view = new HPullToRefreshView(mContext);
+            view.setLoadingViewPool(mLoadingViewPool);
+            view.setMode(mMode);
+            view.setOverLayMode(mIsOverLayMode);
+            view.setTranslationMode(mIsTranslationMode);
+            view.setLoadingViewFixedSize(mIsLoadingViewFixedSize);
+            view.setComsumeScrollPercent(mComsumeScrollPercent);
+            view.setDurationShowRefreshResult(mDurationShowRefreshResult);
+            view.setOnRefreshCallback(mOnRefreshCallback);
+            view.setOnStateChangeCallback(mOnStateChangeCallback);
+            view.setOnViewPositionChangeCallback(mOnViewPositionChangeCallback);
+            view.setOnRefreshLikelyCallback(mOnRefreshLikelyCallback);
+            view.setPullCondition(mPullCondition);
+
+            if (mHeaderView != null)
+                view.setHeaderView(mHeaderView);
+            if (mFooterView != null)
+                view.setFooterView(mFooterView);
+
+            view.setRefreshView(mRefreshView);
+            return view;
+        }
+    }
+
+    //---------- Builder End ----------
 }
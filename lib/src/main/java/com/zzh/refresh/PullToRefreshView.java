@@ -56,6 +56,13 @@ public interface PullToRefreshView {
      */
     void setPullCondition(PullCondition pullCondition);
 
+    /**
+     * 设置可能刷新回调，拖动超过刷新距离的时候回调，可以提前开始刷新的工作
+     *
+     * @param onRefreshLikelyCallback
+     */
+    void setOnRefreshLikelyCallback(OnRefreshLikelyCallback onRefreshLikelyCallback);
+
     /**
      * 设置HeaderView和FooterView是否是覆盖的模式（默认false）
      *
@@ -70,6 +77,21 @@ public interface PullToRefreshView {
      */
     boolean isOverLayMode();
 
+    /**
+     * 设置是否通过translationY移动HeaderView、FooterView和刷新view（默认false）<br>
+     * 开启后拖动和滚动只改变translationY，view的布局位置保持在初始位置，子view请求重新布局不会影响拖动的位置
+     *
+     * @param translationMode
+     */
+    void setTranslationMode(boolean translationMode);
+
+    /**
+     * 是否是translation模式
+     *
+     * @return
+     */
+    boolean isTranslationMode();
+
     /**
      * 设置拖动的时候要消耗的拖动距离比例，默认{@link #DEFAULT_COMSUME_SCROLL_PERCENT}
      *
@@ -77,6 +99,13 @@ public interface PullToRefreshView {
      */
     void setComsumeScrollPercent(float comsumeScrollPercent);
 
+    /**
+     * 设置拖动阻力，设置后{@link #setComsumeScrollPercent(float)}不再生效，设置为null恢复按比例消耗
+     *
+     * @param dragResistance
+     */
+    void setDragResistance(DragResistance dragResistance);
+
     /**
      * 设置显示刷新结果的时长，默认{@link #DEFAULT_DURATION_SHOW_REFRESH_RESULT}
      *
@@ -162,6 +191,13 @@ public interface PullToRefreshView {
      */
     View getRefreshView();
 
+    /**
+     * 返回当前拖动或者刷新的令牌，刷新回调中可以通过它得知刷新被取消
+     *
+     * @return 没有拖动超过刷新距离并且没有在刷新的时候返回null
+     */
+    RefreshToken getRefreshToken();
+
     /**
      * 返回当前拖动方向
      *
@@ -259,6 +295,26 @@ public interface PullToRefreshView {
         void onRefreshingFromFooter(PullToRefreshView view);
     }
 
+    interface OnRefreshLikelyCallback {
+        /**
+         * 开始拖动回调，可以用来预热连接
+         *
+         * @param direction
+         * @param view
+         */
+        void onPullStarted(Direction direction, PullToRefreshView view);
+
+        /**
+         * 拖动超过刷新距离回调，松手触发刷新的时候令牌变为{@link RefreshToken#isPromoted()}，
+         * 退回刷新距离以内松手的时候令牌被取消
+         *
+         * @param direction
+         * @param token
+         * @param view
+         */
+        void onRefreshLikely(Direction direction, RefreshToken token, PullToRefreshView view);
+    }
+
     interface OnViewPositionChangeCallback {
         /**
          * view位置变化回调
@@ -268,6 +324,18 @@ public interface PullToRefreshView {
         void onViewPositionChanged(PullToRefreshView view);
     }
 
+    interface DragResistance {
+        /**
+         * 返回手指拖动的距离对应的view移动距离
+         *
+         * @param delta          手指拖动的距离，可能是小数
+         * @param scrollDistance 当前已经滚动的距离（大于等于0）
+         * @param view
+         * @return view的移动距离，方向和delta相同
+         */
+        float getDragDistance(float delta, float scrollDistance, PullToRefreshView view);
+    }
+
     interface PullCondition {
         /**
          * 是否可以从Header处触发拖动
@@ -0,0 +1,255 @@
+package com.zzh.refresh;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 刷新结果，可以在任意线程设置结果，监听在主线程回调<br>
+ * 结果为true表示刷新成功，失败、异常和取消都表示刷新失败
+ */
+public class RefreshFuture implements Future<Boolean> {
+    private static Handler sMainHandler;
+
+    private final Object mLock = new Object();
+    private boolean mIsDone;
+    private boolean mIsCanceled;
+    private boolean mSuccess;
+    private Throwable mException;
+    private List<Listener> mListeners;
+    /**
+     * {@link #submit(Executor, Callable)}提交的任务，取消的时候中断
+     */
+    private volatile Future<?> mTask;
+
+    /**
+     * 在executor中执行callable，callable的返回值作为刷新结果
+     *
+     * @param executor
+     * @param callable
+     * @return
+     */
+    public static RefreshFuture submit(Executor executor, final Callable<Boolean> callable) {
+        if (executor == null || callable == null)
+            throw new NullPointerException();
+
+        final RefreshFuture future = new RefreshFuture();
+        final FutureTask<Void> task = new FutureTask<>(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final Boolean result = callable.call();
+                    future.setResult(result != null && result);
+                } catch (Throwable e) {
+                    future.setException(e);
+                }
+            }
+        }, null);
+        future.mTask = task;
+        executor.execute(task);
+        return future;
+    }
+
+    /**
+     * 返回已经完成的结果
+     *
+     * @param success
+     * @return
+     */
+    public static RefreshFuture completed(boolean success) {
+        final RefreshFuture future = new RefreshFuture();
+        future.setResult(success);
+        return future;
+    }
+
+    /**
+     * 设置结果
+     *
+     * @param success
+     * @return true-设置成功，false-已经有结果了
+     */
+    public boolean setResult(boolean success) {
+        return complete(success, null, false);
+    }
+
+    /**
+     * 设置异常，结果为失败
+     *
+     * @param exception
+     * @return true-设置成功，false-已经有结果了
+     */
+    public boolean setException(Throwable exception) {
+        if (exception == null)
+            throw new NullPointerException("exception is null");
+
+        return complete(false, exception, false);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        final boolean cancel = complete(false, null, true);
+        if (cancel) {
+            final Future<?> task = mTask;
+            if (task != null)
+                task.cancel(mayInterruptIfRunning);
+        }
+        return cancel;
+    }
+
+    private boolean complete(boolean success, Throwable exception, boolean cancel) {
+        final List<Listener> listeners;
+        synchronized (mLock) {
+            if (mIsDone)
+                return false;
+
+            mIsDone = true;
+            mSuccess = success;
+            mException = exception;
+            mIsCanceled = cancel;
+            mLock.notifyAll();
+
+            listeners = mListeners;
+            mListeners = null;
+        }
+
+        if (listeners != null) {
+            for (Listener item : listeners) {
+                dispatchComplete(item);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 添加监听，在主线程回调，如果已经有结果会在下一次主线程消息中回调
+     *
+     * @param listener
+     */
+    public void addListener(Listener listener) {
+        if (listener == null)
+            throw new NullPointerException("listener is null");
+
+        synchronized (mLock) {
+            if (!mIsDone) {
+                if (mListeners == null)
+                    mListeners = new ArrayList<>(1);
+                mListeners.add(listener);
+                return;
+            }
+        }
+        dispatchComplete(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        synchronized (mLock) {
+            if (mListeners != null)
+                mListeners.remove(listener);
+        }
+    }
+
+    private void dispatchComplete(final Listener listener) {
+        getMainHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onComplete(RefreshFuture.this, isSuccess());
+            }
+        });
+    }
+
+    private static synchronized Handler getMainHandler() {
+        if (sMainHandler == null)
+            sMainHandler = new Handler(Looper.getMainLooper());
+        return sMainHandler;
+    }
+
+    /**
+     * 是否刷新成功，没有结果的时候返回false
+     *
+     * @return
+     */
+    public boolean isSuccess() {
+        synchronized (mLock) {
+            return mIsDone && mSuccess;
+        }
+    }
+
+    /**
+     * 返回失败的异常
+     *
+     * @return
+     */
+    public Throwable getException() {
+        synchronized (mLock) {
+            return mException;
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        synchronized (mLock) {
+            return mIsCanceled;
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        synchronized (mLock) {
+            return mIsDone;
+        }
+    }
+
+    @Override
+    public Boolean get() throws InterruptedException, ExecutionException {
+        synchronized (mLock) {
+            while (!mIsDone) {
+                mLock.wait();
+            }
+            return getResultLocked();
+        }
+    }
+
+    @Override
+    public Boolean get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (mLock) {
+            while (!mIsDone) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    throw new TimeoutException();
+
+                TimeUnit.NANOSECONDS.timedWait(mLock, remaining);
+            }
+            return getResultLocked();
+        }
+    }
+
+    private Boolean getResultLocked() throws ExecutionException {
+        if (mIsCanceled)
+            throw new CancellationException();
+
+        if (mException != null)
+            throw new ExecutionException(mException);
+
+        return mSuccess;
+    }
+
+    public interface Listener {
+        /**
+         * 有结果的时候在主线程回调
+         *
+         * @param future
+         * @param success 是否刷新成功，失败、异常和取消都为false
+         */
+        void onComplete(RefreshFuture future, boolean success);
+    }
+}
@@ -0,0 +1,250 @@
+package com.zzh.refresh;
+
+import android.os.Build;
+import android.os.CancellationSignal;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * 一次刷新的令牌，拖动超过刷新距离或者开始刷新的时候创建<br>
+ * 松手触发刷新的时候变为{@link #isPromoted()}，有刷新结果的时候变为{@link #isFinished()}；
+ * 没有触发刷新、刷新控件被移除、禁止刷新、刷新被停止或者被新的刷新取代的时候变为{@link #isCanceled()}<br>
+ * 状态只在主线程变化，{@link #isCanceled()}可以在任意线程调用
+ */
+public final class RefreshToken {
+    private static final int STATUS_ACTIVE = 0;
+    private static final int STATUS_PROMOTED = 1;
+    private static final int STATUS_CANCELED = 2;
+    private static final int STATUS_FINISHED = 3;
+
+    private final PullToRefreshView.Direction mDirection;
+    private volatile int mStatus = STATUS_ACTIVE;
+    private List<Callback> mCallbacks;
+    private List<Future<?>> mFutures;
+    /**
+     * {@link CancellationSignal}，API 16才有，所以用Object保存
+     */
+    private Object mCancellationSignal;
+
+    RefreshToken(PullToRefreshView.Direction direction) {
+        mDirection = direction;
+    }
+
+    /**
+     * 返回刷新的方向
+     *
+     * @return
+     */
+    public PullToRefreshView.Direction getDirection() {
+        return mDirection;
+    }
+
+    /**
+     * 是否还未确定（拖动中，还没有松手）
+     *
+     * @return
+     */
+    public boolean isActive() {
+        return mStatus == STATUS_ACTIVE;
+    }
+
+    /**
+     * 是否已经变成真正的刷新
+     *
+     * @return
+     */
+    public boolean isPromoted() {
+        return mStatus == STATUS_PROMOTED;
+    }
+
+    /**
+     * 是否已经取消
+     *
+     * @return
+     */
+    public boolean isCanceled() {
+        return mStatus == STATUS_CANCELED;
+    }
+
+    /**
+     * 刷新是否已经有结果
+     *
+     * @return
+     */
+    public boolean isFinished() {
+        return mStatus == STATUS_FINISHED;
+    }
+
+    /**
+     * 关联任务，取消的时候调用{@link Future#cancel(boolean)}中断任务，如果已经取消会立即取消任务
+     *
+     * @param future
+     */
+    public void attachFuture(Future<?> future) {
+        if (future == null)
+            throw new NullPointerException("future is null");
+
+        if (mStatus == STATUS_CANCELED) {
+            future.cancel(true);
+            return;
+        }
+
+        if (mStatus == STATUS_FINISHED)
+            return;
+
+        if (mFutures == null)
+            mFutures = new ArrayList<>(1);
+        mFutures.add(future);
+    }
+
+    /**
+     * 返回和令牌关联的{@link CancellationSignal}，令牌取消的时候会被取消，可以传给ContentResolver等支持取消的接口
+     *
+     * @return
+     */
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+    public CancellationSignal getCancellationSignal() {
+        if (mCancellationSignal == null) {
+            final CancellationSignal signal = new CancellationSignal();
+            if (mStatus == STATUS_CANCELED)
+                signal.cancel();
+            mCancellationSignal = signal;
+        }
+        return (CancellationSignal) mCancellationSignal;
+    }
+
+    /**
+     * 添加回调，如果令牌已经变成刷新或者已经取消，会立即回调
+     *
+     * @param callback
+     */
+    public void addCallback(Callback callback) {
+        if (callback == null)
+            throw new NullPointerException("callback is null");
+
+        if (mStatus == STATUS_CANCELED) {
+            callback.onCanceled(this);
+            return;
+        }
+
+        if (mStatus == STATUS_FINISHED)
+            return;
+
+        if (mStatus == STATUS_PROMOTED)
+            callback.onPromoted(this);
+
+        if (mCallbacks == null)
+            mCallbacks = new ArrayList<>(1);
+        mCallbacks.add(callback);
+    }
+
+    public void removeCallback(Callback callback) {
+        if (mCallbacks != null)
+            mCallbacks.remove(callback);
+    }
+
+    /**
+     * 变成真正的刷新
+     *
+     * @return true-状态发生变化
+     */
+    boolean promote() {
+        if (mStatus != STATUS_ACTIVE)
+            return false;
+
+        mStatus = STATUS_PROMOTED;
+        if (mCallbacks != null) {
+            for (Callback item : new ArrayList<>(mCallbacks)) {
+                item.onPromoted(this);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 刷新有结果了
+     *
+     * @return true-状态发生变化
+     */
+    boolean finish() {
+        if (mStatus == STATUS_CANCELED || mStatus == STATUS_FINISHED)
+            return false;
+
+        mStatus = STATUS_FINISHED;
+        mCallbacks = null;
+        mFutures = null;
+        return true;
+    }
+
+    /**
+     * 取消
+     *
+     * @return true-状态发生变化
+     */
+    boolean cancel() {
+        if (mStatus == STATUS_CANCELED || mStatus == STATUS_FINISHED)
+            return false;
+
+        mStatus = STATUS_CANCELED;
+
+        if (mFutures != null) {
+            final List<Future<?>> futures = mFutures;
+            mFutures = null;
+            for (Future<?> item : futures) {
+                item.cancel(true);
+            }
+        }
+
+        if (mCancellationSignal != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+            ((CancellationSignal) mCancellationSignal).cancel();
+
+        if (mCallbacks != null) {
+            final List<Callback> callbacks = mCallbacks;
+            mCallbacks = null;
+            for (Callback item : callbacks) {
+                item.onCanceled(this);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        final String status;
+        switch (mStatus) {
+            case STATUS_ACTIVE:
+                status = "active";
+                break;
+            case STATUS_PROMOTED:
+                status = "promoted";
+                break;
+            case STATUS_CANCELED:
+                status = "canceled";
+                break;
+            default:
+                status = "finished";
+                break;
+        }
+        return RefreshToken.class.getSimpleName() + "{" + mDirection + ", " + status + "}";
+    }
+
+    public interface Callback {
+        /**
+         * 松手触发了刷新，提前开始的工作可以作为这次刷新的结果
+         *
+         * @param token
+         */
+        void onPromoted(RefreshToken token);
+
+        /**
+         * 没有触发刷新或者刷新被取消，需要停止已经开始的工作
+         *
+         * @param token
+         */
+        void onCanceled(RefreshToken token);
+    }
+}
@@ -0,0 +1,23 @@
+package com.zzh.refresh.gesture;
+
+/**
+ * 动画时间源，滚动实现通过它获取当前时间，测试或者性能测试的时候可以替换成手动推进的时间
+ */
+public interface AnimationClock {
+    /**
+     * 系统时间源，不依赖Android，单调递增
+     */
+    AnimationClock SYSTEM = new AnimationClock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.nanoTime() / 1000000L;
+        }
+    };
+
+    /**
+     * 返回当前时间
+     *
+     * @return 单位：毫秒，只用于计算时间差
+     */
+    long currentTimeMillis();
+}
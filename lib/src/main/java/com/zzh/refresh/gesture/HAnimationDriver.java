@@ -0,0 +1,126 @@
+package com.zzh.refresh.gesture;
+
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.animation.AnimationUtils;
+
+import androidx.annotation.RequiresApi;
+
+/**
+ * 通过{@link Choreographer}的帧回调驱动动画，每帧用垂直同步的帧时间计算位置，不需要通过重绘来推进动画<br>
+ * 位置只和帧时间有关，和帧间隔无关，所以刷新率在动画中途变化或者掉帧都不会影响每帧的位置
+ */
+public class HAnimationDriver {
+    private static final long NANOS_PER_MS = 1000000L;
+
+    private final FrameCallback mFrameCallback;
+    private final Callback mCallback;
+
+    private boolean mIsRunning;
+    private boolean mIsInFrame;
+    private long mFrameTimeMillis;
+
+    private final AnimationClock mClock = new AnimationClock() {
+        @Override
+        public long currentTimeMillis() {
+            return mIsInFrame ? mFrameTimeMillis : AnimationUtils.currentAnimationTimeMillis();
+        }
+    };
+
+    public HAnimationDriver(Callback callback) {
+        if (callback == null)
+            throw new NullPointerException();
+
+        mCallback = callback;
+        mFrameCallback = isSupported() ? new FrameCallback() : null;
+    }
+
+    /**
+     * 当前系统是否支持，低于{@link Build.VERSION_CODES#JELLY_BEAN}不支持
+     *
+     * @return
+     */
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    }
+
+    /**
+     * 返回时间源，帧回调中返回当前帧的垂直同步时间，其他时候返回动画时间
+     *
+     * @return
+     */
+    public AnimationClock getClock() {
+        return mClock;
+    }
+
+    public boolean isRunning() {
+        return mIsRunning;
+    }
+
+    /**
+     * 开始驱动，直到{@link Callback#onFrame()}返回false或者调用{@link #stop()}
+     */
+    public void start() {
+        if (mIsRunning || mFrameCallback == null)
+            return;
+
+        mIsRunning = true;
+        mFrameCallback.post();
+    }
+
+    /**
+     * 停止驱动
+     */
+    public void stop() {
+        if (!mIsRunning)
+            return;
+
+        mIsRunning = false;
+        mFrameCallback.remove();
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        if (!mIsRunning)
+            return;
+
+        mFrameTimeMillis = frameTimeNanos / NANOS_PER_MS;
+        mIsInFrame = true;
+        final boolean next;
+        try {
+            next = mCallback.onFrame();
+        } finally {
+            mIsInFrame = false;
+        }
+
+        if (next && mIsRunning) {
+            mFrameCallback.post();
+        } else {
+            mIsRunning = false;
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+    private final class FrameCallback implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            onFrame(frameTimeNanos);
+        }
+
+        public void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        public void remove() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    public interface Callback {
+        /**
+         * 每帧回调
+         *
+         * @return true-需要下一帧
+         */
+        boolean onFrame();
+    }
+}
@@ -0,0 +1,343 @@
+package com.zzh.refresh.gesture;
+
+import android.content.Context;
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.WindowManager;
+
+import androidx.annotation.RequiresApi;
+
+/**
+ * 帧率统计类，通过{@link Choreographer}的帧时间统计拖动和滚动期间的帧数、掉帧数、最长帧时长和帧时长分布
+ */
+public class HFrameMetrics {
+    /**
+     * 帧时长直方图的桶数量，每个桶1毫秒，最后一个桶包含所有更长的帧
+     */
+    public static final int HISTOGRAM_BUCKET_COUNT = 100;
+
+    private static final long NANOS_PER_MS = 1000000L;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+
+    private final FrameCallback mFrameCallback;
+
+    private boolean mEnabled = true;
+    private Type mType;
+    private long mLastFrameTimeNanos;
+    private long mFrameIntervalNanos;
+
+    private final Accumulator mSession = new Accumulator();
+    private final Accumulator[] mTotals;
+
+    private Callback mCallback;
+
+    public HFrameMetrics(Context context) {
+        if (context == null)
+            throw new NullPointerException();
+
+        final WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        setRefreshRate(getRefreshRate(windowManager != null ? windowManager.getDefaultDisplay() : null));
+        mFrameCallback = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ? new FrameCallback() : null;
+
+        final Type[] types = Type.values();
+        mTotals = new Accumulator[types.length];
+        for (int i = 0; i < types.length; i++) {
+            mTotals[i] = new Accumulator();
+        }
+    }
+
+    /**
+     * 设置是否统计（默认true），关闭的时候会结束当前的统计
+     *
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled) {
+        if (!enabled)
+            stop();
+        mEnabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * 设置屏幕刷新率，用于计算掉帧数，默认使用创建时默认屏幕的刷新率<br>
+     * view所在的屏幕或者刷新率变化的时候由外部更新，统计过程中不再查询屏幕
+     *
+     * @param refreshRate
+     */
+    public void setRefreshRate(float refreshRate) {
+        if (refreshRate <= 0)
+            throw new IllegalArgumentException("refreshRate > 0 required");
+
+        mFrameIntervalNanos = (long) (NANOS_PER_SECOND / refreshRate);
+    }
+
+    /**
+     * 返回屏幕的刷新率，获取不到的时候返回60
+     *
+     * @param display
+     * @return
+     */
+    public static float getRefreshRate(Display display) {
+        if (display != null) {
+            final float refreshRate = display.getRefreshRate();
+            if (refreshRate > 0)
+                return refreshRate;
+        }
+        return DEFAULT_REFRESH_RATE;
+    }
+
+    /**
+     * 设置回调对象，每次统计结束后回调
+     *
+     * @param callback
+     */
+    public void setCallback(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * 开始统计，如果正在统计其他类型会先结束之前的统计
+     *
+     * @param type
+     */
+    public void start(Type type) {
+        if (type == null)
+            throw new NullPointerException();
+
+        if (!mEnabled || mFrameCallback == null || mType == type)
+            return;
+
+        stop();
+
+        mType = type;
+        mLastFrameTimeNanos = 0;
+        mSession.reset();
+        mFrameCallback.post();
+    }
+
+    /**
+     * 结束当前统计
+     */
+    public void stop() {
+        final Type type = mType;
+        if (type == null)
+            return;
+
+        mType = null;
+        mFrameCallback.remove();
+
+        if (mSession.mFrameCount <= 0)
+            return;
+
+        mTotals[type.ordinal()].add(mSession);
+        if (mCallback != null)
+            mCallback.onFrameMetrics(mSession.toStats(type));
+    }
+
+    /**
+     * 返回从上一次{@link #reset()}开始某个类型的统计快照
+     *
+     * @param type
+     * @return
+     */
+    public Stats getStats(Type type) {
+        return mTotals[type.ordinal()].toStats(type);
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void reset() {
+        for (Accumulator item : mTotals) {
+            item.reset();
+        }
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        if (mLastFrameTimeNanos > 0) {
+            final long duration = frameTimeNanos - mLastFrameTimeNanos;
+            if (duration > 0)
+                mSession.record(duration, mFrameIntervalNanos);
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+        mFrameCallback.post();
+    }
+
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+    private final class FrameCallback implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (mType != null)
+                onFrame(frameTimeNanos);
+        }
+
+        public void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        public void remove() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    private static final class Accumulator {
+        private int mFrameCount;
+        private int mDroppedFrameCount;
+        private long mWorstFrameDurationNanos;
+        private final int[] mHistogram = new int[HISTOGRAM_BUCKET_COUNT];
+
+        void record(long durationNanos, long frameIntervalNanos) {
+            mFrameCount++;
+
+            if (frameIntervalNanos > 0 && durationNanos * 2 > frameIntervalNanos * 3) {
+                // 超过1.5倍帧间隔认为有掉帧
+                mDroppedFrameCount += (int) ((durationNanos + frameIntervalNanos / 2) / frameIntervalNanos) - 1;
+            }
+
+            if (durationNanos > mWorstFrameDurationNanos)
+                mWorstFrameDurationNanos = durationNanos;
+
+            final int bucket = (int) Math.min(durationNanos / NANOS_PER_MS, HISTOGRAM_BUCKET_COUNT - 1);
+            mHistogram[bucket]++;
+        }
+
+        void add(Accumulator other) {
+            mFrameCount += other.mFrameCount;
+            mDroppedFrameCount += other.mDroppedFrameCount;
+            mWorstFrameDurationNanos = Math.max(mWorstFrameDurationNanos, other.mWorstFrameDurationNanos);
+            for (int i = 0; i < HISTOGRAM_BUCKET_COUNT; i++) {
+                mHistogram[i] += other.mHistogram[i];
+            }
+        }
+
+        void reset() {
+            mFrameCount = 0;
+            mDroppedFrameCount = 0;
+            mWorstFrameDurationNanos = 0;
+            for (int i = 0; i < HISTOGRAM_BUCKET_COUNT; i++) {
+                mHistogram[i] = 0;
+            }
+        }
+
+        Stats toStats(Type type) {
+            return new Stats(type, mFrameCount, mDroppedFrameCount, mWorstFrameDurationNanos, mHistogram.clone());
+        }
+    }
+
+    /**
+     * 统计快照
+     */
+    public static final class Stats {
+        private final Type mType;
+        private final int mFrameCount;
+        private final int mDroppedFrameCount;
+        private final long mWorstFrameDurationNanos;
+        private final int[] mHistogram;
+
+        private Stats(Type type, int frameCount, int droppedFrameCount, long worstFrameDurationNanos, int[] histogram) {
+            mType = type;
+            mFrameCount = frameCount;
+            mDroppedFrameCount = droppedFrameCount;
+            mWorstFrameDurationNanos = worstFrameDurationNanos;
+            mHistogram = histogram;
+        }
+
+        public Type getType() {
+            return mType;
+        }
+
+        /**
+         * 返回帧数
+         *
+         * @return
+         */
+        public int getFrameCount() {
+            return mFrameCount;
+        }
+
+        /**
+         * 返回掉帧数
+         *
+         * @return
+         */
+        public int getDroppedFrameCount() {
+            return mDroppedFrameCount;
+        }
+
+        /**
+         * 返回最长的帧时长（纳秒）
+         *
+         * @return
+         */
+        public long getWorstFrameDurationNanos() {
+            return mWorstFrameDurationNanos;
+        }
+
+        /**
+         * 返回帧时长直方图，下标i表示时长在[i, i+1)毫秒之间的帧数
+         *
+         * @return
+         */
+        public int[] getHistogram() {
+            return mHistogram.clone();
+        }
+
+        /**
+         * 返回帧时长的百分位数（毫秒）
+         *
+         * @param percentile [0-1]，例如0.9表示90%的帧时长小于等于返回值
+         * @return
+         */
+        public int getFrameTimePercentile(float percentile) {
+            if (percentile < 0 || percentile > 1)
+                throw new IllegalArgumentException("percentile >= 0 && percentile <= 1 required");
+
+            if (mFrameCount == 0)
+                return 0;
+
+            final int target = Math.max(1, (int) Math.ceil(mFrameCount * percentile));
+            int count = 0;
+            for (int i = 0; i < mHistogram.length; i++) {
+                count += mHistogram[i];
+                if (count >= target)
+                    return i + 1;
+            }
+            return mHistogram.length;
+        }
+
+        @Override
+        public String toString() {
+            return mType + " frames:" + mFrameCount
+                    + " dropped:" + mDroppedFrameCount
+                    + " worst:" + (mWorstFrameDurationNanos / NANOS_PER_MS) + "ms"
+                    + " p50:" + getFrameTimePercentile(0.5f) + "ms"
+                    + " p90:" + getFrameTimePercentile(0.9f) + "ms"
+                    + " p99:" + getFrameTimePercentile(0.99f) + "ms";
+        }
+    }
+
+    public enum Type {
+        /**
+         * 手指拖动
+         */
+        Pull,
+        /**
+         * {@link HScroller}滚动
+         */
+        Settle
+    }
+
+    public interface Callback {
+        /**
+         * 一次统计结束回调
+         *
+         * @param stats
+         */
+        void onFrameMetrics(Stats stats);
+    }
+}
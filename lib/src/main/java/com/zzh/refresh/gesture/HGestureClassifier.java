@@ -0,0 +1,129 @@
+package com.zzh.refresh.gesture;
+
+/**
+ * 拖动手势分类，根据相对按下位置的偏移判断是下拉、上拉还是其他方向的滑动<br>
+ * 角度在设置的时候换算成正切值，分类的时候只比较斜率，不需要三角函数计算
+ */
+public class HGestureClassifier {
+    /**
+     * 默认和竖直方向的最大夹角
+     */
+    public static final float DEFAULT_DEGREE = 30;
+
+    private int mTouchSlop;
+    private float mHeaderTangent;
+    private float mFooterTangent;
+    private boolean mIsAxisLock = true;
+
+    /**
+     * @param touchSlop 最小滑动距离
+     */
+    public HGestureClassifier(int touchSlop) {
+        setTouchSlop(touchSlop);
+        setHeaderDegree(DEFAULT_DEGREE);
+        setFooterDegree(DEFAULT_DEGREE);
+    }
+
+    /**
+     * 设置最小滑动距离，竖直方向的偏移超过这个距离才开始拖动
+     *
+     * @param touchSlop
+     */
+    public void setTouchSlop(int touchSlop) {
+        if (touchSlop < 0)
+            throw new IllegalArgumentException("touchSlop >= 0 required");
+
+        mTouchSlop = touchSlop;
+    }
+
+    public int getTouchSlop() {
+        return mTouchSlop;
+    }
+
+    /**
+     * 设置下拉时和竖直方向的最大夹角（默认{@link #DEFAULT_DEGREE}），放在横向滑动的容器中的时候可以适当减小
+     *
+     * @param degree 大于0并且小于90
+     */
+    public void setHeaderDegree(float degree) {
+        mHeaderTangent = toTangent(degree);
+    }
+
+    /**
+     * 设置上拉时和竖直方向的最大夹角（默认{@link #DEFAULT_DEGREE}）
+     *
+     * @param degree 大于0并且小于90
+     */
+    public void setFooterDegree(float degree) {
+        mFooterTangent = toTangent(degree);
+    }
+
+    /**
+     * 设置是否锁定方向（默认true）<br>
+     * 锁定后，偏移超过最小滑动距离的时候如果角度不满足，这次手势判定为{@link Result#REJECT}，交给横向滑动的容器处理；
+     * 不锁定的时候继续判断，手势后面转为竖直方向的时候还可以拖动
+     *
+     * @param axisLock
+     */
+    public void setAxisLock(boolean axisLock) {
+        mIsAxisLock = axisLock;
+    }
+
+    public boolean isAxisLock() {
+        return mIsAxisLock;
+    }
+
+    /**
+     * 根据相对按下位置的偏移分类
+     *
+     * @param dx x轴方向偏移
+     * @param dy y轴方向偏移，大于0表示向下
+     * @return
+     */
+    public Result classify(float dx, float dy) {
+        final float absDx = Math.abs(dx);
+        final float absDy = Math.abs(dy);
+        final float tangent = dy > 0 ? mHeaderTangent : mFooterTangent;
+
+        // tan(夹角) = absDx / absDy
+        final boolean checkDegree = absDx < absDy * tangent;
+        if (!checkDegree) {
+            final boolean checkOutOfSlop = absDx > mTouchSlop || absDy > mTouchSlop;
+            if (mIsAxisLock && checkOutOfSlop)
+                return Result.REJECT;
+            return Result.UNDECIDED;
+        }
+
+        final boolean checkPullDelta = absDy > mTouchSlop;
+        if (!checkPullDelta)
+            return Result.UNDECIDED;
+
+        return dy > 0 ? Result.PULL_HEADER : Result.PULL_FOOTER;
+    }
+
+    private static float toTangent(float degree) {
+        if (degree <= 0 || degree >= 90)
+            throw new IllegalArgumentException("degree > 0 && degree < 90 required");
+
+        return (float) Math.tan(Math.toRadians(degree));
+    }
+
+    public enum Result {
+        /**
+         * 还不能确定
+         */
+        UNDECIDED,
+        /**
+         * 下拉
+         */
+        PULL_HEADER,
+        /**
+         * 上拉
+         */
+        PULL_FOOTER,
+        /**
+         * 其他方向的滑动，这次手势不再拖动
+         */
+        REJECT
+    }
+}
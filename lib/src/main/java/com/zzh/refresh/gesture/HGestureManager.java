@@ -6,6 +6,9 @@ import android.view.VelocityTracker;
 import android.view.ViewGroup;
 
 public class HGestureManager {
+    private static final String TRACE_INTERCEPT_TOUCH_EVENT = "HGestureManager#onInterceptTouchEvent";
+    private static final String TRACE_TOUCH_EVENT = "HGestureManager#onTouchEvent";
+
     private final ViewGroup mViewGroup;
 
     private HTouchHelper mTouchHelper;
@@ -118,13 +121,36 @@ public class HGestureManager {
         return mVelocityTracker;
     }
 
-    private void releaseVelocityTracker() {
+    /**
+     * 回收速率计算对象，view移除的时候调用，下一次手势会重新获取
+     */
+    public void releaseVelocityTracker() {
         if (mVelocityTracker != null) {
             mVelocityTracker.recycle();
             mVelocityTracker = null;
         }
     }
 
+    /**
+     * 这次手势是否已经被拦截或者消费
+     *
+     * @return
+     */
+    private boolean isGestureClaimed() {
+        return mTagHolder.isTagIntercept() || mTagHolder.isTagConsume();
+    }
+
+    /**
+     * 只有手势被拦截或者消费之后才计算速率，没有处理的手势不需要速率
+     *
+     * @param event
+     * @param claimed 处理这个事件之前手势是否已经被拦截或者消费
+     */
+    private void trackVelocity(MotionEvent event, boolean claimed) {
+        if (!claimed && isGestureClaimed())
+            getVelocityTracker().addMovement(event);
+    }
+
     /**
      * 取消消费事件
      */
@@ -155,18 +181,32 @@ public class HGestureManager {
      * @return
      */
     public boolean onInterceptTouchEvent(MotionEvent event) {
+        final boolean trace = HTrace.beginSection(TRACE_INTERCEPT_TOUCH_EVENT);
+        try {
+            return onInterceptTouchEventInternal(event);
+        } finally {
+            HTrace.endSection(trace);
+        }
+    }
+
+    private boolean onInterceptTouchEventInternal(MotionEvent event) {
         getTouchHelper().processTouchEvent(event);
-        getVelocityTracker().addMovement(event);
 
-        final int action = event.getAction();
+        final boolean claimed = isGestureClaimed();
+        if (claimed)
+            getVelocityTracker().addMovement(event);
+
+        final int action = event.getActionMasked();
         if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
             onEventFinish(event);
-        } else {
+        } else if (!HTouchHelper.isPointerEvent(event)) {
             if (action == MotionEvent.ACTION_DOWN)
                 onEventStart(event);
 
             if (!mTagHolder.isTagIntercept())
                 mTagHolder.setTagIntercept(mCallback.shouldInterceptEvent(event));
+
+            trackVelocity(event, claimed);
         }
 
         return mTagHolder.isTagIntercept();
@@ -179,19 +219,34 @@ public class HGestureManager {
      * @return
      */
     public boolean onTouchEvent(MotionEvent event) {
+        final boolean trace = HTrace.beginSection(TRACE_TOUCH_EVENT);
+        try {
+            return onTouchEventInternal(event);
+        } finally {
+            HTrace.endSection(trace);
+        }
+    }
+
+    private boolean onTouchEventInternal(MotionEvent event) {
         getTouchHelper().processTouchEvent(event);
-        getVelocityTracker().addMovement(event);
 
-        final int action = event.getAction();
+        final boolean claimed = isGestureClaimed();
+        if (claimed)
+            getVelocityTracker().addMovement(event);
+
+        final int action = event.getActionMasked();
         if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
             onEventFinish(event);
         } else if (action == MotionEvent.ACTION_DOWN) {
             onEventStart(event);
             return mCallback.onEventActionDown(event);
+        } else if (HTouchHelper.isPointerEvent(event)) {
+            // 手指按下或者抬起的时候增量为0，不需要处理，避免多余的移动和布局
         } else {
             if (!getLifecycleInfo().isCancelConsumeEvent()) {
                 if (!mTagHolder.isTagConsume()) {
                     mTagHolder.setTagConsume(mCallback.shouldConsumeEvent(event));
+                    trackVelocity(event, claimed);
                 } else {
                     mCallback.onEventConsume(event);
                     getLifecycleInfo().setHasConsumeEvent(true);
@@ -203,14 +258,19 @@ public class HGestureManager {
     }
 
     private void onEventStart(MotionEvent event) {
+        if (mVelocityTracker != null)
+            mVelocityTracker.clear();
 
+        mCallback.onEventStart(event);
     }
 
     private void onEventFinish(MotionEvent event) {
         mTagHolder.reset();
-        mCallback.onEventFinish(getVelocityTracker(), event);
+        final VelocityTracker velocityTracker = getVelocityTracker();
+        mCallback.onEventFinish(velocityTracker, event);
 
-        releaseVelocityTracker();
+        // 复用速率计算对象，下一次手势开始的时候清空
+        velocityTracker.clear();
         getLifecycleInfo().reset();
 
         if (mState == State.Consume)
@@ -298,6 +358,15 @@ public class HGestureManager {
     }
 
     public abstract static class Callback {
+        /**
+         * 手势开始，收到{@link MotionEvent#ACTION_DOWN}事件，可以在这里重置这次手势的状态<br>
+         * 拦截和消费事件的时候都会收到按下事件，所以一次手势可能回调两次
+         *
+         * @param event
+         */
+        public void onEventStart(MotionEvent event) {
+        }
+
         /**
          * 是否开始拦截事件(由{@link #onInterceptTouchEvent(MotionEvent)}方法触发)
          *
@@ -1,6 +1,8 @@
 package com.zzh.refresh.gesture;
 
 import android.content.Context;
+import android.view.animation.AnimationUtils;
+import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.widget.Scroller;
 
@@ -8,6 +10,18 @@ import android.widget.Scroller;
  * 滚动帮助类
  */
 public class HScroller {
+    private static final String TRACE_COMPUTE_SCROLL_OFFSET = "HScroller#computeScrollOffset";
+
+    /**
+     * 和Android动画相同的时间源{@link AnimationUtils#currentAnimationTimeMillis()}
+     */
+    public static final AnimationClock ANIMATION_CLOCK = new AnimationClock() {
+        @Override
+        public long currentTimeMillis() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+    };
+
     private ScrollerApi mScrollerApi;
     /**
      * 最大滚动距离
@@ -70,6 +84,10 @@ public class HScroller {
         mScrollerApi = scrollerApi;
     }
 
+    public final ScrollerApi getScrollerApi() {
+        return mScrollerApi;
+    }
+
     /**
      * 设置最大滚动距离
      *
@@ -177,12 +195,44 @@ public class HScroller {
         return fling;
     }
 
+    /**
+     * 带着初速度滚动到固定的位置，只有速度指向目标位置的时候才会滚动<br>
+     * 默认的实现按{@link #computeFixedFlingDuration(float, float, int)}计算时长并减速滚动，开始的速度等于初速度
+     *
+     * @param startY
+     * @param endY
+     * @param velocityY 单位：像素/秒
+     * @return true-提交滚动任务成功
+     */
+    public final boolean flingToY(int startY, int endY, int velocityY) {
+        final int dy = endY - startY;
+        final boolean fling = (dy > 0 && velocityY > 0) || (dy < 0 && velocityY < 0);
+
+        if (fling) {
+            mLastX = 0;
+            mLastY = startY;
+
+            mScrollerApi.fling(0, startY, 0, velocityY, 0, 0, endY, endY);
+            updateFinished();
+        }
+        return fling;
+    }
+
     /**
      * 计算滚动距离
      *
      * @return true-滚动中，false-滚动结束
      */
     public final boolean computeScrollOffset() {
+        final boolean trace = HTrace.beginSection(TRACE_COMPUTE_SCROLL_OFFSET);
+        try {
+            return computeScrollOffsetInternal();
+        } finally {
+            HTrace.endSection(trace);
+        }
+    }
+
+    private boolean computeScrollOffsetInternal() {
         final boolean compute = mScrollerApi.computeScrollOffset();
 
         final int currX = mScrollerApi.getCurrX();
@@ -276,6 +326,28 @@ public class HScroller {
         return Math.min(duration, durationMax);
     }
 
+    /**
+     * 计算带着初速度滚动到固定位置的时长，按{@link DecelerateInterpolator}（因子为1）的曲线滚动的时候，开始的速度等于初速度<br>
+     * 曲线为1 - (1 - t)²，开始的斜率为2，所以时长 = 2 * 距离 / 速度
+     *
+     * @param distance    滚动距离
+     * @param velocity    初速度，单位：像素/秒
+     * @param durationMax 最大时长，速度很小的时候限制时长，开始的速度会大于初速度
+     * @return
+     */
+    public static int computeFixedFlingDuration(float distance, float velocity, int durationMax) {
+        distance = Math.abs(distance);
+        velocity = Math.abs(velocity);
+        if (distance == 0)
+            return 0;
+
+        if (velocity == 0)
+            return durationMax;
+
+        final int duration = (int) Math.ceil(2000 * distance / velocity);
+        return Math.max(1, Math.min(duration, durationMax));
+    }
+
     public interface Callback {
         /**
          * 开始回调
@@ -318,11 +390,36 @@ public class HScroller {
         int getCurrY();
     }
 
+    /**
+     * 可以设置时间源的滚动实现，开启帧回调驱动后会使用帧时间作为时间源
+     */
+    public interface ClockScrollerApi extends ScrollerApi {
+        /**
+         * 设置时间源，滚动中也可以设置，时间源需要和{@link AnimationClock#SYSTEM}使用相同的时间基准
+         *
+         * @param clock
+         */
+        void setAnimationClock(AnimationClock clock);
+    }
+
     private static class SimpleScrollerApi implements HScroller.ScrollerApi {
+        /**
+         * 终点固定的惯性滚动的最大时长
+         */
+        private static final int MAX_FIXED_FLING_DURATION = 400;
+
+        private final Context mContext;
         private final Scroller mScroller;
+        /**
+         * 终点固定的惯性滚动使用的Scroller，Scroller.fling()会按速度计算终点和时长，到达固定终点时的速度和初速度无关
+         */
+        private Scroller mFixedFlingScroller;
+        private Scroller mCurrentScroller;
 
         public SimpleScrollerApi(Context context, Interpolator interpolator) {
+            mContext = context;
             mScroller = new Scroller(context, interpolator);
+            mCurrentScroller = mScroller;
         }
 
         @Override
@@ -332,37 +429,58 @@ public class HScroller {
 
         @Override
         public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+            switchScroller(mScroller);
             mScroller.startScroll(startX, startY, dx, dy, duration);
         }
 
         @Override
         public void fling(int startX, int startY, int velocityX, int velocityY, int minX, int maxX, int minY, int maxY) {
-            mScroller.fling(startX, startY, velocityX, velocityY, minX, maxX, minY, maxY);
+            if (minX == maxX && minY == maxY) {
+                if (mFixedFlingScroller == null)
+                    mFixedFlingScroller = new Scroller(mContext, new DecelerateInterpolator());
+
+                final int dx = minX - startX;
+                final int dy = minY - startY;
+                final int duration = computeFixedFlingDuration((float) Math.hypot(dx, dy),
+                        (float) Math.hypot(velocityX, velocityY), MAX_FIXED_FLING_DURATION);
+
+                switchScroller(mFixedFlingScroller);
+                mFixedFlingScroller.startScroll(startX, startY, dx, dy, duration);
+            } else {
+                switchScroller(mScroller);
+                mScroller.fling(startX, startY, velocityX, velocityY, minX, maxX, minY, maxY);
+            }
+        }
+
+        private void switchScroller(Scroller scroller) {
+            if (mCurrentScroller != scroller)
+                mCurrentScroller.forceFinished(true);
+            mCurrentScroller = scroller;
         }
 
         @Override
         public boolean computeScrollOffset() {
-            return mScroller.computeScrollOffset();
+            return mCurrentScroller.computeScrollOffset();
         }
 
         @Override
         public void abortAnimation() {
-            mScroller.abortAnimation();
+            mCurrentScroller.abortAnimation();
         }
 
         @Override
         public boolean isFinished() {
-            return mScroller.isFinished();
+            return mCurrentScroller.isFinished();
         }
 
         @Override
         public int getCurrX() {
-            return mScroller.getCurrX();
+            return mCurrentScroller.getCurrX();
         }
 
         @Override
         public int getCurrY() {
-            return mScroller.getCurrY();
+            return mCurrentScroller.getCurrY();
         }
     }
 }
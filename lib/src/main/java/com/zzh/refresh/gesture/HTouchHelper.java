@@ -8,13 +8,39 @@ import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.view.ViewParent;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 触摸事件处理帮助类<br>
  */
 public class HTouchHelper {
+    /**
+     * {@link #isViewUnderScreen(View, int, int)}使用的坐标，只在主线程使用
+     */
+    private static final int[] sLocation = new int[2];
+
+    /**
+     * 保存的采样点数量
+     */
+    private static final int SAMPLE_COUNT = 20;
+    /**
+     * 预测时只使用最近这段时间内的采样点（毫秒）
+     */
+    private static final int PREDICT_SAMPLE_WINDOW = 50;
+    /**
+     * 预测需要的最少采样点数量
+     */
+    private static final int PREDICT_MIN_SAMPLE_COUNT = 3;
+    /**
+     * 最大预测时长（毫秒），预测得越远误差越大
+     */
+    public static final int MAX_PREDICT_TIME = 32;
+    /**
+     * 无效的手指id
+     */
+    public static final int INVALID_POINTER_ID = -1;
+
     private float mCurrentX;
     private float mCurrentY;
 
@@ -24,6 +50,19 @@ public class HTouchHelper {
     private float mDownX;
     private float mDownY;
 
+    /**
+     * 当前跟踪的手指
+     */
+    private int mActivePointerId = INVALID_POINTER_ID;
+
+    /**
+     * y轴采样点（包括批量事件中的历史采样点），环形数组
+     */
+    private final long[] mSampleTime = new long[SAMPLE_COUNT];
+    private final float[] mSampleY = new float[SAMPLE_COUNT];
+    private int mSampleIndex;
+    private int mSampleSize;
+
     /**
      * 处理触摸事件
      *
@@ -33,19 +72,151 @@ public class HTouchHelper {
         mLastX = mCurrentX;
         mLastY = mCurrentY;
 
-        mCurrentX = event.getRawX();
-        mCurrentY = event.getRawY();
-
-        switch (event.getAction()) {
+        boolean pointerChanged = false;
+        switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
-                mDownX = mCurrentX;
-                mDownY = mCurrentY;
+                mActivePointerId = event.getPointerId(0);
+                break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                // 跟踪新按下的手指
+                mActivePointerId = event.getPointerId(event.getActionIndex());
+                pointerChanged = true;
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                final int actionIndex = event.getActionIndex();
+                if (event.getPointerId(actionIndex) == mActivePointerId) {
+                    // 跟踪的手指抬起，换成另一个手指
+                    final int newIndex = actionIndex == 0 ? 1 : 0;
+                    mActivePointerId = event.getPointerId(newIndex);
+                    pointerChanged = true;
+                }
                 break;
             default:
                 break;
         }
+
+        int pointerIndex = event.findPointerIndex(mActivePointerId);
+        if (pointerIndex < 0) {
+            pointerIndex = 0;
+            mActivePointerId = event.getPointerId(0);
+        }
+
+        // 只有第一个手指有屏幕坐标，其他手指用相同的偏移换算
+        final float offsetX = event.getRawX() - event.getX();
+        final float offsetY = event.getRawY() - event.getY();
+        mCurrentX = event.getX(pointerIndex) + offsetX;
+        mCurrentY = event.getY(pointerIndex) + offsetY;
+
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mDownX = mCurrentX;
+            mDownY = mCurrentY;
+            mSampleSize = 0;
+        } else if (pointerChanged) {
+            // 换手指的时候坐标会跳到另一个手指，平移按下的坐标并让这次的增量为0，保持位置连续
+            mDownX += mCurrentX - mLastX;
+            mDownY += mCurrentY - mLastY;
+            mLastX = mCurrentX;
+            mLastY = mCurrentY;
+            mSampleSize = 0;
+        }
+
+        addSamples(event, pointerIndex, offsetY);
+    }
+
+    /**
+     * 返回当前跟踪的手指id，可以用于{@link android.view.VelocityTracker#getYVelocity(int)}
+     *
+     * @return
+     */
+    public int getActivePointerId() {
+        return mActivePointerId;
+    }
+
+    /**
+     * 是否是非第一个手指按下或者抬起的事件
+     *
+     * @param event
+     * @return
+     */
+    public static boolean isPointerEvent(MotionEvent event) {
+        final int action = event.getActionMasked();
+        return action == MotionEvent.ACTION_POINTER_DOWN || action == MotionEvent.ACTION_POINTER_UP;
+    }
+
+    //---------- Predict Start ----------
+
+    /**
+     * 保存事件中的所有采样点，高采样率的设备一帧会批量分发多个采样点
+     *
+     * @param event
+     * @param pointerIndex 跟踪的手指
+     * @param offsetY      历史采样点只有相对view的坐标，用当前事件的偏移换算成屏幕坐标
+     */
+    private void addSamples(MotionEvent event, int pointerIndex, float offsetY) {
+        final int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            addSample(event.getHistoricalEventTime(i), event.getHistoricalY(pointerIndex, i) + offsetY);
+        }
+        addSample(event.getEventTime(), mCurrentY);
     }
 
+    private void addSample(long time, float y) {
+        mSampleIndex = (mSampleIndex + 1) % SAMPLE_COUNT;
+        mSampleTime[mSampleIndex] = time;
+        mSampleY[mSampleIndex] = y;
+        if (mSampleSize < SAMPLE_COUNT)
+            mSampleSize++;
+    }
+
+    /**
+     * 返回预测的一段时间之后手指的y轴坐标（屏幕坐标）<br>
+     * 用最近{@link #PREDICT_SAMPLE_WINDOW}毫秒内的采样点做最小二乘直线拟合得到速度，从当前坐标按速度外推，
+     * 采样点不够的时候返回当前坐标
+     *
+     * @param predictTime 预测时长（毫秒），最大{@link #MAX_PREDICT_TIME}
+     * @return
+     */
+    public float getPredictedY(int predictTime) {
+        if (predictTime <= 0 || mSampleSize < PREDICT_MIN_SAMPLE_COUNT)
+            return mCurrentY;
+
+        predictTime = Math.min(predictTime, MAX_PREDICT_TIME);
+
+        final long newestTime = mSampleTime[mSampleIndex];
+        int count = 0;
+        float sumT = 0;
+        float sumY = 0;
+        float sumTT = 0;
+        float sumTY = 0;
+        for (int i = 0; i < mSampleSize; i++) {
+            final int index = (mSampleIndex - i + SAMPLE_COUNT) % SAMPLE_COUNT;
+            final float t = mSampleTime[index] - newestTime;
+            if (-t > PREDICT_SAMPLE_WINDOW)
+                break;
+
+            // 以最新的采样点为原点，减小浮点误差
+            final float y = mSampleY[index] - mSampleY[mSampleIndex];
+            count++;
+            sumT += t;
+            sumY += y;
+            sumTT += t * t;
+            sumTY += t * y;
+        }
+
+        if (count < PREDICT_MIN_SAMPLE_COUNT)
+            return mCurrentY;
+
+        final float denominator = count * sumTT - sumT * sumT;
+        if (denominator == 0)
+            return mCurrentY;
+
+        // 单位：像素/毫秒
+        final float velocity = (count * sumTY - sumT * sumY) / denominator;
+        return mCurrentY + velocity * predictTime;
+    }
+
+    //---------- Predict End ----------
+
     public float getCurrentX() {
         return mCurrentX;
     }
@@ -181,7 +352,7 @@ public class HTouchHelper {
      * @return
      */
     public boolean isClick(MotionEvent event, Context context) {
-        if (event.getAction() == MotionEvent.ACTION_UP) {
+        if (event.getActionMasked() == MotionEvent.ACTION_UP) {
             final long clickTimeout = ViewConfiguration.getPressedStateDuration() + ViewConfiguration.getTapTimeout();
             final int touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
 
@@ -219,6 +390,28 @@ public class HTouchHelper {
         return delta;
     }
 
+    /**
+     * 返回合理的增量
+     *
+     * @param current 当前值
+     * @param min     最小值
+     * @param max     最大值
+     * @param delta   增量
+     * @return
+     */
+    public static float getLegalDelta(float current, float min, float max, float delta) {
+        if (delta == 0)
+            return 0;
+
+        final float future = current + delta;
+        if (future < min) {
+            delta += (min - future);
+        } else if (future > max) {
+            delta += (max - future);
+        }
+        return delta;
+    }
+
     /**
      * 是否请求当前view的父view不要拦截事件
      *
@@ -253,7 +446,7 @@ public class HTouchHelper {
      * @return
      */
     public static boolean isViewUnderScreen(View view, int x, int y) {
-        final int[] location = new int[2];
+        final int[] location = sLocation;
         view.getLocationOnScreen(location);
         return x >= location[0] && x < location[0] + view.getWidth()
                 && y >= location[1] && y < location[1] + view.getHeight();
@@ -268,15 +461,26 @@ public class HTouchHelper {
      * @return
      */
     public static List<View> findChildrenUnder(ViewGroup parent, int x, int y) {
-        final List<View> list = new LinkedList<>();
+        final List<View> list = new ArrayList<>();
+        findChildrenUnder(parent, x, y, list);
+        return list;
+    }
 
+    /**
+     * 找到parent中处于指定坐标下的child，结果添加到list中，list可以复用
+     *
+     * @param parent
+     * @param x
+     * @param y
+     * @param list
+     */
+    public static void findChildrenUnder(ViewGroup parent, int x, int y, List<View> list) {
         final int count = parent.getChildCount();
         for (int i = count - 1; i >= 0; i--) {
             final View child = parent.getChildAt(i);
             if (isViewUnder(child, x, y))
                 list.add(child);
         }
-        return list;
     }
 
     /**
@@ -291,16 +495,16 @@ public class HTouchHelper {
         if (Build.VERSION.SDK_INT < 21)
             return parent.getChildAt(parent.getChildCount() - 1);
 
-        final List<View> list = findChildrenUnder(parent, x, y);
-        if (list.isEmpty())
-            return null;
+        View target = null;
+        final int count = parent.getChildCount();
+        for (int i = count - 1; i >= 0; i--) {
+            final View child = parent.getChildAt(i);
+            if (!isViewUnder(child, x, y))
+                continue;
 
-        View target = list.remove(0);
-        for (View item : list) {
-            if (item.getZ() > target.getZ())
-                target = item;
+            if (target == null || child.getZ() > target.getZ())
+                target = child;
         }
-
         return target;
     }
 
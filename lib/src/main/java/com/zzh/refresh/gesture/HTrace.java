@@ -0,0 +1,82 @@
+package com.zzh.refresh.gesture;
+
+import android.os.Build;
+
+import androidx.tracing.Trace;
+
+/**
+ * systrace/perfetto追踪帮助类<br>
+ * API 29以上先检查追踪开关；API 18到28之间androidx.tracing通过反射检查开关，每次都会分配对象，
+ * 所以同步片段直接调用系统的Trace，由系统在native层检查开关，异步片段只在API 29以上记录
+ */
+public final class HTrace {
+    /**
+     * {@link android.os.Trace#isEnabled()}和异步片段的最低版本（Build.VERSION_CODES.Q）
+     */
+    private static final int API_ENABLED_CHECK = 29;
+
+    private HTrace() {
+    }
+
+    /**
+     * 追踪是否开启，API 29以下无法在不分配对象的情况下检查，返回false
+     *
+     * @return
+     */
+    public static boolean isEnabled() {
+        return Build.VERSION.SDK_INT >= API_ENABLED_CHECK && Trace.isEnabled();
+    }
+
+    /**
+     * 开始一个同步追踪片段，必须在同一个线程调用{@link #endSection(boolean)}结束
+     *
+     * @param sectionName
+     * @return true-片段已经开始，需要传给{@link #endSection(boolean)}
+     */
+    public static boolean beginSection(String sectionName) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2)
+            return false;
+
+        if (Build.VERSION.SDK_INT >= API_ENABLED_CHECK && !Trace.isEnabled())
+            return false;
+
+        Trace.beginSection(sectionName);
+        return true;
+    }
+
+    /**
+     * 结束同步追踪片段
+     *
+     * @param begin {@link #beginSection(String)}的返回值
+     */
+    public static void endSection(boolean begin) {
+        if (begin)
+            Trace.endSection();
+    }
+
+    /**
+     * 开始一个异步追踪片段，只在API 29以上并且追踪开启时记录
+     *
+     * @param sectionName
+     * @param cookie      区分同名片段的标识
+     * @return true-片段已经开始，需要调用{@link #endAsyncSection(String, int)}结束
+     */
+    public static boolean beginAsyncSection(String sectionName, int cookie) {
+        if (!isEnabled())
+            return false;
+
+        Trace.beginAsyncSection(sectionName, cookie);
+        return true;
+    }
+
+    /**
+     * 结束异步追踪片段
+     *
+     * @param sectionName
+     * @param cookie
+     */
+    public static void endAsyncSection(String sectionName, int cookie) {
+        if (Build.VERSION.SDK_INT >= API_ENABLED_CHECK)
+            Trace.endAsyncSection(sectionName, cookie);
+    }
+}
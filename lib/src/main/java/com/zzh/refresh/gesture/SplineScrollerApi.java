@@ -0,0 +1,328 @@
+package com.zzh.refresh.gesture;
+
+/**
+ * 纯Java实现的滚动，滚动和惯性滚动的曲线和{@code android.widget.Scroller}相同<br>
+ * 惯性滚动使用预先计算好的样条查找表，时间由{@link AnimationClock}提供，可以在非Android环境中手动推进，
+ * {@link #computeScrollOffset()}不创建对象<br>
+ * 在Android中使用的时候建议传入{@link HScroller#ANIMATION_CLOCK}，和其他动画使用相同的时间
+ */
+public class SplineScrollerApi implements HScroller.ClockScrollerApi {
+    /**
+     * 默认惯性滚动摩擦系数，和ViewConfiguration.getScrollFriction()相同
+     */
+    public static final float DEFAULT_FRICTION = 0.015f;
+
+    private static final int MODE_SCROLL = 0;
+    private static final int MODE_FLING = 1;
+    /**
+     * 带着初速度滚动到固定终点，按1 - (1 - t)²减速，开始的速度等于初速度
+     */
+    private static final int MODE_FIXED_FLING = 2;
+
+    /**
+     * 终点固定的惯性滚动的最大时长
+     */
+    private static final int MAX_FIXED_FLING_DURATION = 400;
+    private static final int DEFAULT_DURATION = 250;
+
+    private static final float GRAVITY_EARTH = 9.80665f;
+    private static final float INCH_PER_METER = 39.37f;
+    private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+    private static final float INFLEXION = 0.35f;
+    private static final float START_TENSION = 0.5f;
+    private static final float END_TENSION = 1.0f;
+    private static final float P1 = START_TENSION * INFLEXION;
+    private static final float P2 = 1.0f - END_TENSION * (1.0f - INFLEXION);
+
+    private static final int NB_SAMPLES = 100;
+    /**
+     * 惯性滚动的距离比例，下标为时间比例 * {@link #NB_SAMPLES}
+     */
+    private static final float[] SPLINE_POSITION = new float[NB_SAMPLES + 1];
+
+    private static final float VISCOUS_FLUID_SCALE = 8.0f;
+    private static final float VISCOUS_FLUID_NORMALIZE;
+    private static final float VISCOUS_FLUID_OFFSET;
+
+    static {
+        float xMin = 0.0f;
+        for (int i = 0; i < NB_SAMPLES; i++) {
+            final float alpha = (float) i / NB_SAMPLES;
+
+            float xMax = 1.0f;
+            float x, tx, coef;
+            while (true) {
+                x = xMin + (xMax - xMin) / 2.0f;
+                coef = 3.0f * x * (1.0f - x);
+                tx = coef * ((1.0f - x) * P1 + x * P2) + x * x * x;
+                if (Math.abs(tx - alpha) < 1E-5)
+                    break;
+
+                if (tx > alpha)
+                    xMax = x;
+                else
+                    xMin = x;
+            }
+            SPLINE_POSITION[i] = coef * ((1.0f - x) * START_TENSION + x) + x * x * x;
+        }
+        SPLINE_POSITION[NB_SAMPLES] = 1.0f;
+
+        VISCOUS_FLUID_NORMALIZE = 1.0f / viscousFluid(1.0f);
+        VISCOUS_FLUID_OFFSET = 1.0f - VISCOUS_FLUID_NORMALIZE * viscousFluid(1.0f);
+    }
+
+    private AnimationClock mClock;
+    private final float mPhysicalCoeff;
+    private float mFriction = DEFAULT_FRICTION;
+
+    private int mMode;
+    private boolean mIsFinished = true;
+    private long mStartTime;
+    private int mDuration;
+    private float mDurationReciprocal;
+
+    private int mStartX;
+    private int mStartY;
+    private int mFinalX;
+    private int mFinalY;
+    private int mMinX;
+    private int mMaxX;
+    private int mMinY;
+    private int mMaxY;
+    private int mCurrX;
+    private int mCurrY;
+
+    private float mDeltaX;
+    private float mDeltaY;
+    private float mCurrVelocity;
+    private int mDistance;
+
+    /**
+     * @param density 屏幕密度（DisplayMetrics.density），用于计算惯性滚动的物理系数
+     */
+    public SplineScrollerApi(float density) {
+        this(density, AnimationClock.SYSTEM);
+    }
+
+    /**
+     * @param density 屏幕密度（DisplayMetrics.density），用于计算惯性滚动的物理系数
+     * @param clock   时间源
+     */
+    public SplineScrollerApi(float density, AnimationClock clock) {
+        if (clock == null)
+            throw new NullPointerException("clock is null");
+
+        if (density <= 0)
+            throw new IllegalArgumentException("density > 0 required");
+
+        mClock = clock;
+        final float ppi = density * 160.0f;
+        mPhysicalCoeff = GRAVITY_EARTH * INCH_PER_METER * ppi * 0.84f;
+    }
+
+    @Override
+    public void setAnimationClock(AnimationClock clock) {
+        if (clock == null)
+            throw new NullPointerException("clock is null");
+
+        mClock = clock;
+    }
+
+    @Override
+    public void setFriction(float friction) {
+        mFriction = friction;
+    }
+
+    @Override
+    public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+        if (duration < 0)
+            duration = DEFAULT_DURATION;
+
+        mMode = MODE_SCROLL;
+        mIsFinished = false;
+        mDuration = duration;
+        mStartTime = mClock.currentTimeMillis();
+        mStartX = startX;
+        mStartY = startY;
+        mFinalX = startX + dx;
+        mFinalY = startY + dy;
+        mDeltaX = dx;
+        mDeltaY = dy;
+        mCurrX = startX;
+        mCurrY = startY;
+        mDurationReciprocal = duration == 0 ? 0 : 1.0f / duration;
+    }
+
+    @Override
+    public void fling(int startX, int startY, int velocityX, int velocityY, int minX, int maxX, int minY, int maxY) {
+        final float velocity = (float) Math.hypot(velocityX, velocityY);
+        if (minX == maxX && minY == maxY) {
+            final int dx = minX - startX;
+            final int dy = minY - startY;
+            startScroll(startX, startY, dx, dy,
+                    HScroller.computeFixedFlingDuration((float) Math.hypot(dx, dy), velocity, MAX_FIXED_FLING_DURATION));
+            mMode = MODE_FIXED_FLING;
+            mCurrVelocity = 2.0f * (float) Math.hypot(dx, dy) * mDurationReciprocal * 1000.0f;
+            return;
+        }
+
+        mMode = MODE_FLING;
+        mIsFinished = false;
+
+        mDuration = getSplineFlingDuration(velocity);
+
+        mStartTime = mClock.currentTimeMillis();
+        mStartX = startX;
+        mStartY = startY;
+        mCurrX = startX;
+        mCurrY = startY;
+        mCurrVelocity = velocity;
+
+        final float coeffX = velocity == 0 ? 1.0f : velocityX / velocity;
+        final float coeffY = velocity == 0 ? 1.0f : velocityY / velocity;
+
+        final double totalDistance = getSplineFlingDistance(velocity);
+        mDistance = (int) (totalDistance * Math.signum(velocity));
+
+        mMinX = minX;
+        mMaxX = maxX;
+        mMinY = minY;
+        mMaxY = maxY;
+
+        mFinalX = clamp(startX + (int) Math.round(totalDistance * coeffX), minX, maxX);
+        mFinalY = clamp(startY + (int) Math.round(totalDistance * coeffY), minY, maxY);
+    }
+
+    @Override
+    public boolean computeScrollOffset() {
+        if (mIsFinished)
+            return false;
+
+        // 帧时间有可能早于开始滚动的时间
+        final int timePassed = (int) Math.max(0, mClock.currentTimeMillis() - mStartTime);
+        if (timePassed < mDuration) {
+            switch (mMode) {
+                case MODE_SCROLL:
+                    final float x = viscousFluidInterpolation(timePassed * mDurationReciprocal);
+                    mCurrX = mStartX + Math.round(x * mDeltaX);
+                    mCurrY = mStartY + Math.round(x * mDeltaY);
+                    break;
+                case MODE_FIXED_FLING:
+                    final float remain = 1.0f - timePassed * mDurationReciprocal;
+                    final float decelerate = 1.0f - remain * remain;
+                    mCurrX = mStartX + Math.round(decelerate * mDeltaX);
+                    mCurrY = mStartY + Math.round(decelerate * mDeltaY);
+                    mCurrVelocity = 2.0f * remain * (float) Math.hypot(mDeltaX, mDeltaY) * mDurationReciprocal * 1000.0f;
+                    break;
+                case MODE_FLING:
+                    final float t = (float) timePassed / mDuration;
+                    final int index = (int) (NB_SAMPLES * t);
+                    float distanceCoef = 1.0f;
+                    float velocityCoef = 0.0f;
+                    if (index < NB_SAMPLES) {
+                        final float tInf = (float) index / NB_SAMPLES;
+                        final float tSup = (float) (index + 1) / NB_SAMPLES;
+                        final float dInf = SPLINE_POSITION[index];
+                        final float dSup = SPLINE_POSITION[index + 1];
+                        velocityCoef = (dSup - dInf) / (tSup - tInf);
+                        distanceCoef = dInf + (t - tInf) * velocityCoef;
+                    }
+
+                    mCurrVelocity = velocityCoef * mDistance / mDuration * 1000.0f;
+
+                    mCurrX = clamp(mStartX + Math.round(distanceCoef * (mFinalX - mStartX)), mMinX, mMaxX);
+                    mCurrY = clamp(mStartY + Math.round(distanceCoef * (mFinalY - mStartY)), mMinY, mMaxY);
+
+                    if (mCurrX == mFinalX && mCurrY == mFinalY)
+                        mIsFinished = true;
+                    break;
+            }
+        } else {
+            mCurrX = mFinalX;
+            mCurrY = mFinalY;
+            mIsFinished = true;
+        }
+        return true;
+    }
+
+    @Override
+    public void abortAnimation() {
+        mCurrX = mFinalX;
+        mCurrY = mFinalY;
+        mIsFinished = true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mIsFinished;
+    }
+
+    @Override
+    public int getCurrX() {
+        return mCurrX;
+    }
+
+    @Override
+    public int getCurrY() {
+        return mCurrY;
+    }
+
+    /**
+     * 返回当前惯性滚动的速度
+     *
+     * @return 单位：像素/秒
+     */
+    public float getCurrVelocity() {
+        return mMode == MODE_FLING || mMode == MODE_FIXED_FLING ? mCurrVelocity
+                : (float) Math.hypot(mDeltaX, mDeltaY) * mDurationReciprocal * 1000.0f;
+    }
+
+    private double getSplineDeceleration(float velocity) {
+        return Math.log(INFLEXION * Math.abs(velocity) / (mFriction * mPhysicalCoeff));
+    }
+
+    private int getSplineFlingDuration(float velocity) {
+        if (velocity == 0)
+            return 0;
+
+        final double l = getSplineDeceleration(velocity);
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+        return (int) (1000.0 * Math.exp(l / decelMinusOne));
+    }
+
+    private double getSplineFlingDistance(float velocity) {
+        if (velocity == 0)
+            return 0;
+
+        final double l = getSplineDeceleration(velocity);
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+        return mFriction * mPhysicalCoeff * Math.exp(DECELERATION_RATE / decelMinusOne * l);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        if (value < min)
+            return min;
+        if (value > max)
+            return max;
+        return value;
+    }
+
+    private static float viscousFluid(float x) {
+        x *= VISCOUS_FLUID_SCALE;
+        if (x < 1.0f) {
+            x -= (1.0f - (float) Math.exp(-x));
+        } else {
+            final float start = 0.36787944117f; // 1/e == exp(-1)
+            x = 1.0f - (float) Math.exp(1.0f - x);
+            x = start + x * (1.0f - start);
+        }
+        return x;
+    }
+
+    private static float viscousFluidInterpolation(float input) {
+        final float interpolated = VISCOUS_FLUID_NORMALIZE * viscousFluid(input);
+        if (interpolated > 0)
+            return interpolated + VISCOUS_FLUID_OFFSET;
+        return interpolated;
+    }
+}
@@ -0,0 +1,335 @@
+package com.zzh.refresh.gesture;
+
+/**
+ * 弹簧物理模型的滚动实现，位置由弹簧方程的解析解按时间直接计算，和帧率无关，计算过程中不创建对象<br>
+ * 滚动时长由刚度和阻尼比决定，{@link #startScroll(int, int, int, int, int)}的duration参数会被忽略；
+ * 滚动中重新开始滚动会保留当前速度，所以回弹可以被随时打断
+ */
+public class SpringScrollerApi implements HScroller.ClockScrollerApi {
+    /**
+     * 默认刚度，和androidx SpringForce.STIFFNESS_MEDIUM相同
+     */
+    public static final float DEFAULT_STIFFNESS = 1500f;
+    /**
+     * 默认阻尼比，临界阻尼，不回弹
+     */
+    public static final float DEFAULT_DAMPING_RATIO = 1f;
+    /**
+     * 默认惯性滚动摩擦系数
+     */
+    public static final float DEFAULT_FRICTION = 1f;
+
+    /**
+     * 惯性滚动的速度衰减系数，和androidx FlingAnimation相同
+     */
+    private static final float FLING_DECAY = 4.2f;
+    /**
+     * 距离目标位置小于此值（像素）并且速度小于{@link #VELOCITY_THRESHOLD}时认为结束
+     */
+    private static final float DISPLACEMENT_THRESHOLD = 0.5f;
+    /**
+     * 单位：像素/秒
+     */
+    private static final float VELOCITY_THRESHOLD = 10f;
+    private static final float CRITICAL_DAMPING_EPSILON = 0.001f;
+
+    private float mStiffness = DEFAULT_STIFFNESS;
+    private float mDampingRatio = DEFAULT_DAMPING_RATIO;
+    private float mFriction = DEFAULT_FRICTION;
+
+    private AnimationClock mClock;
+
+    private final Spring mSpringX = new Spring();
+    private final Spring mSpringY = new Spring();
+
+    private float mInitialVelocityX;
+    private float mInitialVelocityY;
+    private boolean mHasInitialVelocity;
+
+    private long mStartTime;
+    private boolean mIsFinished = true;
+
+    public SpringScrollerApi() {
+        this(HScroller.ANIMATION_CLOCK);
+    }
+
+    /**
+     * @param clock 时间源
+     */
+    public SpringScrollerApi(AnimationClock clock) {
+        if (clock == null)
+            throw new NullPointerException("clock is null");
+
+        mClock = clock;
+    }
+
+    @Override
+    public void setAnimationClock(AnimationClock clock) {
+        if (clock == null)
+            throw new NullPointerException("clock is null");
+
+        mClock = clock;
+    }
+
+    /**
+     * 设置刚度，值越大回弹越快
+     *
+     * @param stiffness
+     */
+    public void setStiffness(float stiffness) {
+        if (stiffness <= 0)
+            throw new IllegalArgumentException("stiffness > 0 required");
+
+        mStiffness = stiffness;
+    }
+
+    public float getStiffness() {
+        return mStiffness;
+    }
+
+    /**
+     * 设置阻尼比，小于1会回弹，等于1临界阻尼，大于1过阻尼
+     *
+     * @param dampingRatio
+     */
+    public void setDampingRatio(float dampingRatio) {
+        if (dampingRatio <= 0)
+            throw new IllegalArgumentException("dampingRatio > 0 required");
+
+        mDampingRatio = dampingRatio;
+    }
+
+    public float getDampingRatio() {
+        return mDampingRatio;
+    }
+
+    /**
+     * 设置下一次滚动的初始速度，只对下一次{@link #startScroll(int, int, int, int, int)}有效
+     *
+     * @param velocityX 单位：像素/秒
+     * @param velocityY 单位：像素/秒
+     */
+    public void setInitialVelocity(float velocityX, float velocityY) {
+        mInitialVelocityX = velocityX;
+        mInitialVelocityY = velocityY;
+        mHasInitialVelocity = true;
+    }
+
+    /**
+     * 惯性滚动的摩擦系数，值越大滚动距离越短
+     *
+     * @param friction
+     */
+    @Override
+    public void setFriction(float friction) {
+        if (friction <= 0)
+            throw new IllegalArgumentException("friction > 0 required");
+
+        mFriction = friction;
+    }
+
+    @Override
+    public void startScroll(int startX, int startY, int dx, int dy, int duration) {
+        final float velocityX;
+        final float velocityY;
+        if (mHasInitialVelocity) {
+            velocityX = mInitialVelocityX;
+            velocityY = mInitialVelocityY;
+        } else if (!mIsFinished) {
+            // 打断当前滚动，保留当前速度
+            final float time = getElapsedSeconds();
+            velocityX = mSpringX.getVelocity(time);
+            velocityY = mSpringY.getVelocity(time);
+        } else {
+            velocityX = 0;
+            velocityY = 0;
+        }
+
+        start(startX, startY, startX + dx, startY + dy, velocityX, velocityY);
+    }
+
+    @Override
+    public void fling(int startX, int startY, int velocityX, int velocityY, int minX, int maxX, int minY, int maxY) {
+        final float decay = FLING_DECAY * mFriction;
+        final float endX = clamp(startX + velocityX / decay, minX, maxX);
+        final float endY = clamp(startY + velocityY / decay, minY, maxY);
+
+        start(startX, startY, Math.round(endX), Math.round(endY), velocityX, velocityY);
+    }
+
+    private void start(int startX, int startY, int endX, int endY, float velocityX, float velocityY) {
+        mHasInitialVelocity = false;
+
+        final float omega = (float) Math.sqrt(mStiffness);
+        mSpringX.start(startX, endX, velocityX, omega, mDampingRatio);
+        mSpringY.start(startY, endY, velocityY, omega, mDampingRatio);
+
+        mStartTime = mClock.currentTimeMillis();
+        mIsFinished = mSpringX.isAtRest() && mSpringY.isAtRest();
+    }
+
+    @Override
+    public boolean computeScrollOffset() {
+        if (mIsFinished)
+            return false;
+
+        final float time = getElapsedSeconds();
+        final boolean restX = mSpringX.update(time);
+        final boolean restY = mSpringY.update(time);
+
+        if (restX && restY)
+            mIsFinished = true;
+
+        return true;
+    }
+
+    @Override
+    public void abortAnimation() {
+        mSpringX.finish();
+        mSpringY.finish();
+        mIsFinished = true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return mIsFinished;
+    }
+
+    @Override
+    public int getCurrX() {
+        return mSpringX.getCurrent();
+    }
+
+    @Override
+    public int getCurrY() {
+        return mSpringY.getCurrent();
+    }
+
+    private float getElapsedSeconds() {
+        // 帧时间有可能早于开始滚动的时间
+        return Math.max(0, mClock.currentTimeMillis() - mStartTime) / 1000f;
+    }
+
+    private static float clamp(float value, float min, float max) {
+        if (value < min)
+            return min;
+        if (value > max)
+            return max;
+        return value;
+    }
+
+    /**
+     * 单个坐标轴的弹簧，质量为1，x(t)为相对目标位置的偏移
+     */
+    private static final class Spring {
+        private float mFinal;
+        private float mValue;
+        private float mVelocity;
+
+        private float mOmega;
+        private float mDampingRatio;
+        /**
+         * 欠阻尼时为阻尼振动角频率，过阻尼时为两个特征根
+         */
+        private float mDampedOmega;
+        private float mRoot1;
+        private float mRoot2;
+        /**
+         * 解析解的系数，由初始偏移和初始速度决定
+         */
+        private float mCoeffA;
+        private float mCoeffB;
+
+        void start(float start, float end, float velocity, float omega, float dampingRatio) {
+            mFinal = end;
+            mValue = start;
+            mVelocity = velocity;
+            mOmega = omega;
+            // 接近1的阻尼比按临界阻尼计算，避免阻尼振动角频率过小带来的精度问题
+            if (Math.abs(dampingRatio - 1) < CRITICAL_DAMPING_EPSILON)
+                dampingRatio = 1;
+            mDampingRatio = dampingRatio;
+
+            final float x0 = start - end;
+            if (dampingRatio < 1) {
+                mDampedOmega = omega * (float) Math.sqrt(1 - dampingRatio * dampingRatio);
+                mCoeffA = x0;
+                mCoeffB = (velocity + dampingRatio * omega * x0) / mDampedOmega;
+            } else if (dampingRatio == 1) {
+                mCoeffA = x0;
+                mCoeffB = velocity + omega * x0;
+            } else {
+                final float sqrt = (float) Math.sqrt(dampingRatio * dampingRatio - 1);
+                mRoot1 = -omega * (dampingRatio - sqrt);
+                mRoot2 = -omega * (dampingRatio + sqrt);
+                mCoeffA = (velocity - mRoot2 * x0) / (mRoot1 - mRoot2);
+                mCoeffB = x0 - mCoeffA;
+            }
+        }
+
+        /**
+         * 计算time时刻的位置和速度
+         *
+         * @param time 单位：秒
+         * @return true-已经静止
+         */
+        boolean update(float time) {
+            final float displacement = getDisplacement(time);
+            mVelocity = getVelocity(time);
+            mValue = mFinal + displacement;
+
+            if (isAtRest()) {
+                finish();
+                return true;
+            }
+            return false;
+        }
+
+        boolean isAtRest() {
+            return Math.abs(mValue - mFinal) < DISPLACEMENT_THRESHOLD
+                    && Math.abs(mVelocity) < VELOCITY_THRESHOLD;
+        }
+
+        void finish() {
+            mValue = mFinal;
+            mVelocity = 0;
+        }
+
+        int getCurrent() {
+            return Math.round(mValue);
+        }
+
+        private float getDisplacement(float time) {
+            if (mDampingRatio < 1) {
+                final float decay = (float) Math.exp(-mDampingRatio * mOmega * time);
+                final float angle = mDampedOmega * time;
+                return decay * (mCoeffA * (float) Math.cos(angle) + mCoeffB * (float) Math.sin(angle));
+            } else if (mDampingRatio == 1) {
+                return (mCoeffA + mCoeffB * time) * (float) Math.exp(-mOmega * time);
+            } else {
+                return mCoeffA * (float) Math.exp(mRoot1 * time) + mCoeffB * (float) Math.exp(mRoot2 * time);
+            }
+        }
+
+        float getVelocity(float time) {
+            if (mValue == mFinal && mVelocity == 0)
+                return 0;
+
+            if (mDampingRatio < 1) {
+                final float zetaOmega = mDampingRatio * mOmega;
+                final float decay = (float) Math.exp(-zetaOmega * time);
+                final float angle = mDampedOmega * time;
+                final float cos = (float) Math.cos(angle);
+                final float sin = (float) Math.sin(angle);
+                return decay * ((mCoeffB * mDampedOmega - zetaOmega * mCoeffA) * cos
+                        - (mCoeffA * mDampedOmega + zetaOmega * mCoeffB) * sin);
+            } else if (mDampingRatio == 1) {
+                final float decay = (float) Math.exp(-mOmega * time);
+                return (mCoeffB - mOmega * (mCoeffA + mCoeffB * time)) * decay;
+            } else {
+                return mCoeffA * mRoot1 * (float) Math.exp(mRoot1 * time)
+                        + mCoeffB * mRoot2 * (float) Math.exp(mRoot2 * time);
+            }
+        }
+    }
+}
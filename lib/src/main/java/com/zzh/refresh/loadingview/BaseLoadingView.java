@@ -7,7 +7,7 @@ import android.widget.FrameLayout;
 import com.zzh.refresh.PullToRefreshView;
 
 
-public abstract class BaseLoadingView extends FrameLayout implements LoadingView {
+public abstract class BaseLoadingView extends FrameLayout implements RecyclableLoadingView {
     public BaseLoadingView(Context context) {
         super(context);
     }
@@ -38,4 +38,18 @@ public abstract class BaseLoadingView extends FrameLayout implements LoadingView
     public int getRefreshingHeight() {
         return getMeasuredHeight();
     }
+
+    /**
+     * 恢复{@link PullToRefreshView.State#RESET}状态的显示，重置刷新控件和回调可能修改过的view属性，
+     * 子类重写的时候需要调用super，并恢复自己的显示
+     */
+    @Override
+    public void onRecycled() {
+        setTranslationY(0);
+        setAlpha(1);
+        setScaleX(1);
+        setScaleY(1);
+        setRotation(0);
+        setVisibility(VISIBLE);
+    }
 }
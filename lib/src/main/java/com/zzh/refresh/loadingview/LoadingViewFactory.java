@@ -0,0 +1,16 @@
+package com.zzh.refresh.loadingview;
+
+import android.content.Context;
+
+/**
+ * 加载view工厂
+ */
+public interface LoadingViewFactory {
+    /**
+     * 创建加载view，返回的对象必须是View的子类
+     *
+     * @param context
+     * @return
+     */
+    LoadingView create(Context context);
+}
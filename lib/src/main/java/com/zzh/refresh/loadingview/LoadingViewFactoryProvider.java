@@ -0,0 +1,21 @@
+package com.zzh.refresh.loadingview;
+
+/**
+ * 加载view工厂的提供者，注解处理器会为{@link com.zzh.refresh.annotation.DefaultHeader}和{@link com.zzh.refresh.annotation.DefaultFooter}注解的类生成实现，
+ * 通过生成类的install方法安装到{@link LoadingViewFactoryRegistry}
+ */
+public interface LoadingViewFactoryProvider {
+    /**
+     * 返回HeaderView工厂
+     *
+     * @return null-没有指定
+     */
+    LoadingViewFactory getHeaderFactory();
+
+    /**
+     * 返回FooterView工厂
+     *
+     * @return null-没有指定
+     */
+    LoadingViewFactory getFooterFactory();
+}
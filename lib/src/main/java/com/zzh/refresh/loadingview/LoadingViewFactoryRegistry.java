@@ -0,0 +1,150 @@
+package com.zzh.refresh.loadingview;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.zzh.refresh.R;
+import com.zzh.refresh.annotation.GeneratedNames;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * 全局的加载view工厂注册表<br>
+ * 工厂的查找顺序：通过set方法设置的工厂，通过{@link #install(LoadingViewFactoryProvider)}安装的工厂，
+ * 通过{@link R.string#lib_ptr_header_class}和{@link R.string#lib_ptr_footer_class}配置的类，默认工厂<br>
+ * 使用注解的时候需要在Application中调用生成类的install方法：{@code GeneratedLoadingViewFactoryProvider.install()}，
+ * 库不会按类名查找生成的类<br>
+ * 查找结果在进程内只解析一次，解析失败也只报告一次
+ */
+public final class LoadingViewFactoryRegistry {
+    private static final String TAG = LoadingViewFactoryRegistry.class.getSimpleName();
+
+    /**
+     * 默认的工厂，创建{@link SimpleTextLoadingView}
+     */
+    public static final LoadingViewFactory DEFAULT_FACTORY = new LoadingViewFactory() {
+        @Override
+        public LoadingView create(Context context) {
+            return new SimpleTextLoadingView(context);
+        }
+    };
+
+    private static LoadingViewFactory sHeaderFactory;
+    private static LoadingViewFactory sFooterFactory;
+    /**
+     * 工厂是否通过set方法设置，不是的话是解析出来的结果，安装新的提供者时需要重新解析
+     */
+    private static boolean sIsHeaderFactorySet;
+    private static boolean sIsFooterFactorySet;
+
+    private static LoadingViewFactoryProvider sProvider;
+
+    private LoadingViewFactoryRegistry() {
+    }
+
+    /**
+     * 安装工厂提供者，注解处理器生成的{@link GeneratedNames#PROVIDER_CLASS}的install方法会调用这个方法，
+     * 最好在创建刷新控件之前调用，比如Application#onCreate()；之前解析出来的工厂会被清除，
+     * 之后创建的加载view使用新的提供者，已经创建的加载view不受影响
+     *
+     * @param provider
+     */
+    public static synchronized void install(LoadingViewFactoryProvider provider) {
+        sProvider = provider;
+        if (!sIsHeaderFactorySet)
+            sHeaderFactory = null;
+        if (!sIsFooterFactorySet)
+            sFooterFactory = null;
+    }
+
+    /**
+     * 设置全局的HeaderView工厂，优先级高于{@link R.string#lib_ptr_header_class}配置
+     *
+     * @param factory null-恢复使用配置
+     */
+    public static synchronized void setHeaderFactory(LoadingViewFactory factory) {
+        sHeaderFactory = factory;
+        sIsHeaderFactorySet = factory != null;
+    }
+
+    /**
+     * 设置全局的FooterView工厂，优先级高于{@link R.string#lib_ptr_footer_class}配置
+     *
+     * @param factory null-恢复使用配置
+     */
+    public static synchronized void setFooterFactory(LoadingViewFactory factory) {
+        sFooterFactory = factory;
+        sIsFooterFactorySet = factory != null;
+    }
+
+    /**
+     * 返回全局的HeaderView工厂
+     *
+     * @param context
+     * @return
+     */
+    public static synchronized LoadingViewFactory getHeaderFactory(Context context) {
+        if (sHeaderFactory == null && sProvider != null)
+            sHeaderFactory = sProvider.getHeaderFactory();
+        if (sHeaderFactory == null)
+            sHeaderFactory = resolveFactory(context, R.string.lib_ptr_header_class);
+        return sHeaderFactory;
+    }
+
+    /**
+     * 返回全局的FooterView工厂
+     *
+     * @param context
+     * @return
+     */
+    public static synchronized LoadingViewFactory getFooterFactory(Context context) {
+        if (sFooterFactory == null && sProvider != null)
+            sFooterFactory = sProvider.getFooterFactory();
+        if (sFooterFactory == null)
+            sFooterFactory = resolveFactory(context, R.string.lib_ptr_footer_class);
+        return sFooterFactory;
+    }
+
+    private static LoadingViewFactory resolveFactory(Context context, int classNameResId) {
+        final String className = context.getResources().getString(classNameResId);
+        if (TextUtils.isEmpty(className))
+            return DEFAULT_FACTORY;
+
+        try {
+            final Class<?> clazz = Class.forName(className);
+            if (!LoadingView.class.isAssignableFrom(clazz))
+                throw new IllegalArgumentException(className + " must implement " + LoadingView.class.getName());
+
+            return new ConstructorFactory(clazz.getConstructor(Context.class));
+        } catch (Exception e) {
+            Log.e(TAG, "resolve loading view class failed:" + className, e);
+            return DEFAULT_FACTORY;
+        }
+    }
+
+    /**
+     * 通过缓存的构造方法创建加载view，创建失败后改用{@link #DEFAULT_FACTORY}
+     */
+    private static final class ConstructorFactory implements LoadingViewFactory {
+        private final Constructor<?> mConstructor;
+        private volatile boolean mFailed;
+
+        ConstructorFactory(Constructor<?> constructor) {
+            mConstructor = constructor;
+        }
+
+        @Override
+        public LoadingView create(Context context) {
+            if (!mFailed) {
+                try {
+                    return (LoadingView) mConstructor.newInstance(context);
+                } catch (Exception e) {
+                    mFailed = true;
+                    Log.e(TAG, "create loading view failed:" + mConstructor.getDeclaringClass().getName(), e);
+                }
+            }
+            return DEFAULT_FACTORY.create(context);
+        }
+    }
+}
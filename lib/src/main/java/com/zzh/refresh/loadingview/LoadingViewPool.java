@@ -0,0 +1,219 @@
+package com.zzh.refresh.loadingview;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 加载view复用池，多个刷新控件共享同一个池的时候，控件在第一次需要的时候从池中借出加载view，从窗口移除的时候归还<br>
+ * 加载view持有创建时的Context，所以池中的view只会借给Context相同的控件，一般一个Activity使用一个池
+ */
+public class LoadingViewPool {
+    /**
+     * 默认每种加载view最多缓存的数量
+     */
+    public static final int DEFAULT_MAX_SIZE = 3;
+
+    private final List<LoadingView> mHeaderViews = new ArrayList<>();
+    private final List<LoadingView> mFooterViews = new ArrayList<>();
+    private int mMaxSize = DEFAULT_MAX_SIZE;
+
+    private PrewarmTask mPrewarmTask;
+
+    /**
+     * 设置每种加载view最多缓存的数量
+     *
+     * @param maxSize
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("maxSize >= 0 required");
+
+        mMaxSize = maxSize;
+        trim(mHeaderViews);
+        trim(mFooterViews);
+    }
+
+    /**
+     * 在主线程空闲的时候提前创建加载view放入池中，每次空闲只创建一个，避免在首帧或者第一次拖动的时候创建<br>
+     * 只节省创建（inflate）的时间，不会提前测量：新创建的view在第一次布局之前一直处于需要布局的状态，
+     * 添加到刷新控件时也会重新请求布局，所以第一次测量总是完整测量<br>
+     * 必须在主线程调用，会取消之前未完成的预创建
+     *
+     * @param context     创建加载view使用的Context，和借出view的刷新控件的Context相同
+     * @param headerCount 池中需要准备的HeaderView数量
+     * @param footerCount 池中需要准备的FooterView数量
+     */
+    public void prewarm(Context context, int headerCount, int footerCount) {
+        if (context == null)
+            throw new NullPointerException("context is null");
+
+        if (Looper.myLooper() != Looper.getMainLooper())
+            throw new RuntimeException("prewarm must be called on main thread");
+
+        cancelPrewarm();
+
+        final PrewarmTask task = new PrewarmTask(context,
+                Math.min(headerCount, mMaxSize), Math.min(footerCount, mMaxSize));
+        if (task.hasWork()) {
+            mPrewarmTask = task;
+            Looper.myQueue().addIdleHandler(task);
+        }
+    }
+
+    /**
+     * 取消未完成的预创建
+     */
+    public void cancelPrewarm() {
+        if (mPrewarmTask != null) {
+            Looper.myQueue().removeIdleHandler(mPrewarmTask);
+            mPrewarmTask = null;
+        }
+    }
+
+    /**
+     * 借出HeaderView
+     *
+     * @param context
+     * @return null-池中没有可用的view
+     */
+    public LoadingView acquireHeaderView(Context context) {
+        return acquire(mHeaderViews, context);
+    }
+
+    /**
+     * 借出FooterView
+     *
+     * @param context
+     * @return null-池中没有可用的view
+     */
+    public LoadingView acquireFooterView(Context context) {
+        return acquire(mFooterViews, context);
+    }
+
+    /**
+     * 归还HeaderView，view必须已经从父布局移除
+     *
+     * @param headerView
+     */
+    public void releaseHeaderView(LoadingView headerView) {
+        release(mHeaderViews, headerView);
+    }
+
+    /**
+     * 归还FooterView，view必须已经从父布局移除
+     *
+     * @param footerView
+     */
+    public void releaseFooterView(LoadingView footerView) {
+        release(mFooterViews, footerView);
+    }
+
+    /**
+     * 返回池中HeaderView的数量
+     *
+     * @return
+     */
+    public int getHeaderViewCount() {
+        return mHeaderViews.size();
+    }
+
+    /**
+     * 返回池中FooterView的数量
+     *
+     * @return
+     */
+    public int getFooterViewCount() {
+        return mFooterViews.size();
+    }
+
+    /**
+     * 清空池
+     */
+    public void clear() {
+        mHeaderViews.clear();
+        mFooterViews.clear();
+    }
+
+    private static LoadingView acquire(List<LoadingView> list, Context context) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            final LoadingView item = list.get(i);
+            if (((View) item).getContext() == context)
+                return list.remove(i);
+        }
+        return null;
+    }
+
+    private void release(List<LoadingView> list, LoadingView loadingView) {
+        if (loadingView == null)
+            throw new NullPointerException("loadingView is null");
+
+        if (((View) loadingView).getParent() != null)
+            throw new IllegalArgumentException("loadingView must be removed from parent before release");
+
+        if (list.contains(loadingView))
+            return;
+
+        if (loadingView instanceof RecyclableLoadingView)
+            ((RecyclableLoadingView) loadingView).onRecycled();
+        list.add(loadingView);
+        trim(list);
+    }
+
+    private void trim(List<LoadingView> list) {
+        while (list.size() > mMaxSize) {
+            list.remove(0);
+        }
+    }
+
+    private final class PrewarmTask implements MessageQueue.IdleHandler {
+        private final Context mContext;
+        private final int mHeaderCount;
+        private final int mFooterCount;
+
+        PrewarmTask(Context context, int headerCount, int footerCount) {
+            mContext = context;
+            mHeaderCount = headerCount;
+            mFooterCount = footerCount;
+        }
+
+        boolean hasWork() {
+            return countOf(mHeaderViews) < mHeaderCount || countOf(mFooterViews) < mFooterCount;
+        }
+
+        private int countOf(List<LoadingView> list) {
+            int count = 0;
+            for (LoadingView item : list) {
+                if (((View) item).getContext() == mContext)
+                    count++;
+            }
+            return count;
+        }
+
+        @Override
+        public boolean queueIdle() {
+            if (mPrewarmTask != this)
+                return false;
+
+            if (countOf(mHeaderViews) < mHeaderCount) {
+                final LoadingView headerView = LoadingViewFactoryRegistry.getHeaderFactory(mContext).create(mContext);
+                mHeaderViews.add(headerView);
+                trim(mHeaderViews);
+            } else if (countOf(mFooterViews) < mFooterCount) {
+                final LoadingView footerView = LoadingViewFactoryRegistry.getFooterFactory(mContext).create(mContext);
+                mFooterViews.add(footerView);
+                trim(mFooterViews);
+            }
+
+            if (hasWork())
+                return true;
+
+            mPrewarmTask = null;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.zzh.refresh.loadingview;
+
+/**
+ * 可以被{@link LoadingViewPool}复用的加载view，放回池中的时候会收到回调，没有实现这个接口的加载view也可以放回池中
+ */
+public interface RecyclableLoadingView extends LoadingView {
+    /**
+     * 被放回{@link LoadingViewPool}的时候回调，需要重置view的显示，以便被其他刷新控件复用
+     */
+    void onRecycled();
+}
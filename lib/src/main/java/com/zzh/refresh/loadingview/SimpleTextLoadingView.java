@@ -36,50 +36,61 @@ public class SimpleTextLoadingView extends BaseLoadingView {
         return tv_content;
     }
 
+    @Override
+    public void onRecycled() {
+        super.onRecycled();
+        // 和刚创建的时候相同，下一次状态变化时再根据方向显示文字
+        getTextView().setText(null);
+    }
+
     @Override
     public void onStateChanged(PullToRefreshView.State oldState, PullToRefreshView.State newState, PullToRefreshView view) {
+        // 通过方向判断，避免getHeaderView()和getFooterView()创建另一个方向的view
+        final boolean isHeader = view.getDirection() == PullToRefreshView.Direction.FROM_HEADER;
+        final boolean isFooter = view.getDirection() == PullToRefreshView.Direction.FROM_FOOTER;
+
         switch (newState) {
             case RESET:
             case PULL_TO_REFRESH:
-                if (this == getPullToRefreshView().getHeaderView()) {
+                if (isHeader) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_pull_to_refresh_header));
-                } else if (this == getPullToRefreshView().getFooterView()) {
+                } else if (isFooter) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_pull_to_refresh_footer));
                 }
                 break;
             case RELEASE_TO_REFRESH:
-                if (this == getPullToRefreshView().getHeaderView()) {
+                if (isHeader) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_release_to_refresh_header));
-                } else if (this == getPullToRefreshView().getFooterView()) {
+                } else if (isFooter) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_release_to_refresh_footer));
                 }
                 break;
             case REFRESHING:
-                if (this == getPullToRefreshView().getHeaderView()) {
+                if (isHeader) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_refreshing_header));
-                } else if (this == getPullToRefreshView().getFooterView()) {
+                } else if (isFooter) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_refreshing_footer));
                 }
                 break;
             case REFRESHING_SUCCESS:
-                if (this == getPullToRefreshView().getHeaderView()) {
+                if (isHeader) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_refreshing_success_header));
-                } else if (this == getPullToRefreshView().getFooterView()) {
+                } else if (isFooter) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_refreshing_success_footer));
                 }
                 break;
             case REFRESHING_FAILURE:
-                if (this == getPullToRefreshView().getHeaderView()) {
+                if (isHeader) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_refreshing_failure_header));
-                } else if (this == getPullToRefreshView().getFooterView()) {
+                } else if (isFooter) {
                     getTextView().setText(getResources().getString(R.string.lib_ptr_state_refreshing_failure_footer));
                 }
                 break;
             case FINISH:
                 if (oldState == PullToRefreshView.State.REFRESHING) {
-                    if (this == getPullToRefreshView().getHeaderView()) {
+                    if (isHeader) {
                         getTextView().setText(getResources().getString(R.string.lib_ptr_state_pull_to_refresh_header));
-                    } else if (this == getPullToRefreshView().getFooterView()) {
+                    } else if (isFooter) {
                         getTextView().setText(getResources().getString(R.string.lib_ptr_state_pull_to_refresh_footer));
                     }
                 }
@@ -0,0 +1,29 @@
+package com.zzh.refresh.resistance;
+
+import com.zzh.refresh.PullToRefreshView;
+
+/**
+ * 线性阻力，拖动的时候固定消耗一定比例的拖动距离
+ */
+public class LinearDragResistance implements PullToRefreshView.DragResistance {
+    private final float mComsumePercent;
+
+    /**
+     * @param comsumePercent 要消耗的拖动距离比例
+     */
+    public LinearDragResistance(float comsumePercent) {
+        if (comsumePercent < 0 || comsumePercent > 1)
+            throw new IllegalArgumentException("comsumePercent >= 0 && comsumePercent <= 1 required");
+
+        mComsumePercent = comsumePercent;
+    }
+
+    public float getComsumePercent() {
+        return mComsumePercent;
+    }
+
+    @Override
+    public float getDragDistance(float delta, float scrollDistance, PullToRefreshView view) {
+        return delta - delta * mComsumePercent;
+    }
+}
@@ -0,0 +1,78 @@
+package com.zzh.refresh.resistance;
+
+import android.view.View;
+
+import com.zzh.refresh.PullToRefreshView;
+
+/**
+ * 橡皮筋阻力，拖动得越远阻力越大，移动距离无限接近最大距离<br>
+ * 移动距离由手指离开初始位置的距离决定：移动距离 = 最大距离 * (1 - 1 / (手指距离 * 系数 / 最大距离 + 1))，
+ * 往回拖动的时候沿同一条曲线返回，手指回到按下的位置时view也回到初始位置
+ */
+public class RubberBandDragResistance implements PullToRefreshView.DragResistance {
+    /**
+     * 默认系数
+     */
+    public static final float DEFAULT_COEFFICIENT = 0.55f;
+
+    private final float mCoefficient;
+    private final int mMaxDistance;
+
+    /**
+     * 最大距离为刷新控件的高度
+     */
+    public RubberBandDragResistance() {
+        this(DEFAULT_COEFFICIENT, 0);
+    }
+
+    /**
+     * @param coefficient 没有滚动的时候的移动比例
+     * @param maxDistance 最大距离，小于等于0表示使用刷新控件的高度
+     */
+    public RubberBandDragResistance(float coefficient, int maxDistance) {
+        if (coefficient <= 0 || coefficient > 1)
+            throw new IllegalArgumentException("coefficient > 0 && coefficient <= 1 required");
+
+        mCoefficient = coefficient;
+        mMaxDistance = maxDistance;
+    }
+
+    @Override
+    public float getDragDistance(float delta, float scrollDistance, PullToRefreshView view) {
+        final float maxDistance = mMaxDistance > 0 ? mMaxDistance : ((View) view).getHeight();
+        if (maxDistance <= 0)
+            return delta * mCoefficient;
+
+        // 远离初始位置的方向为正
+        final float sign = getAwaySign(delta, view);
+
+        // 由view当前的位置反推手指的距离，加上这次的增量后再算出view新的位置
+        // 超过最大距离的时候（比如最大距离小于刷新高度）按接近最大距离的位置计算
+        final float currentDistance = Math.min(scrollDistance, maxDistance - 1);
+        final float fingerDistance = getFingerDistance(currentDistance, maxDistance);
+        final float newFingerDistance = Math.max(0, fingerDistance + delta * sign);
+        final float newScrollDistance = getScrollDistance(newFingerDistance, maxDistance);
+        return (newScrollDistance - currentDistance) * sign;
+    }
+
+    private float getScrollDistance(float fingerDistance, float maxDistance) {
+        return maxDistance * (1 - 1 / (fingerDistance * mCoefficient / maxDistance + 1));
+    }
+
+    private float getFingerDistance(float scrollDistance, float maxDistance) {
+        if (scrollDistance <= 0)
+            return 0;
+        return maxDistance * scrollDistance / (mCoefficient * (maxDistance - scrollDistance));
+    }
+
+    private static float getAwaySign(float delta, PullToRefreshView view) {
+        switch (view.getDirection()) {
+            case FROM_HEADER:
+                return 1;
+            case FROM_FOOTER:
+                return -1;
+            default:
+                return delta < 0 ? -1 : 1;
+        }
+    }
+}
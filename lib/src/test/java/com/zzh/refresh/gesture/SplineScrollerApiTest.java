@@ -0,0 +1,145 @@
+package com.zzh.refresh.gesture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 用手动推进的时间源测试{@link SplineScrollerApi}，在JVM上运行
+ */
+public class SplineScrollerApiTest {
+    private static final float DENSITY = 2.0f;
+
+    private FakeClock mClock;
+    private SplineScrollerApi mScroller;
+
+    @Before
+    public void setUp() {
+        mClock = new FakeClock();
+        mScroller = new SplineScrollerApi(DENSITY, mClock);
+    }
+
+    @Test
+    public void startScroll_reachesEndAtDuration() {
+        mScroller.startScroll(0, 100, 0, -100, 250);
+        assertFalse(mScroller.isFinished());
+
+        assertTrue(mScroller.computeScrollOffset());
+        assertEquals(100, mScroller.getCurrY());
+
+        int lastY = mScroller.getCurrY();
+        for (int time = 16; time < 250; time += 16) {
+            mClock.mTime = time;
+            assertTrue(mScroller.computeScrollOffset());
+            assertFalse(mScroller.isFinished());
+            assertTrue("position must not go back", mScroller.getCurrY() <= lastY);
+            lastY = mScroller.getCurrY();
+        }
+
+        mClock.mTime = 250;
+        assertTrue(mScroller.computeScrollOffset());
+        assertEquals(0, mScroller.getCurrY());
+        assertTrue(mScroller.isFinished());
+
+        // 结束后不再滚动
+        mClock.mTime = 300;
+        assertFalse(mScroller.computeScrollOffset());
+        assertEquals(0, mScroller.getCurrY());
+    }
+
+    @Test
+    public void startScroll_positionOnlyDependsOnTime() {
+        final SplineScrollerApi other = new SplineScrollerApi(DENSITY, mClock);
+        mScroller.startScroll(0, 0, 0, 300, 300);
+        other.startScroll(0, 0, 0, 300, 300);
+
+        // 一个按8ms推进，一个按16ms推进，相同时间的位置相同
+        for (int time = 8; time <= 300; time += 8) {
+            mClock.mTime = time;
+            mScroller.computeScrollOffset();
+            if (time % 16 == 0) {
+                other.computeScrollOffset();
+                assertEquals("time:" + time, mScroller.getCurrY(), other.getCurrY());
+            }
+        }
+    }
+
+    @Test
+    public void startScroll_clockBeforeStart() {
+        mClock.mTime = 100;
+        mScroller.startScroll(0, 0, 0, 200, 200);
+
+        mClock.mTime = 90;
+        assertTrue(mScroller.computeScrollOffset());
+        assertEquals(0, mScroller.getCurrY());
+        assertFalse(mScroller.isFinished());
+    }
+
+    @Test
+    public void fling_stopsInsideBounds() {
+        mScroller.fling(0, 0, 0, 8000, 0, 0, 0, 500);
+        assertFalse(mScroller.isFinished());
+
+        int lastY = 0;
+        while (mScroller.computeScrollOffset()) {
+            assertTrue(mScroller.getCurrY() >= lastY);
+            assertTrue(mScroller.getCurrY() <= 500);
+            lastY = mScroller.getCurrY();
+            mClock.mTime += 16;
+            assertTrue("fling must end", mClock.mTime < 10000);
+        }
+
+        assertTrue(mScroller.isFinished());
+        assertEquals(500, mScroller.getCurrY());
+    }
+
+    @Test
+    public void fling_zeroVelocity() {
+        mScroller.fling(0, 50, 0, 0, 0, 0, 0, 500);
+
+        assertTrue(mScroller.computeScrollOffset());
+        assertTrue(mScroller.isFinished());
+        assertEquals(50, mScroller.getCurrY());
+    }
+
+    @Test
+    public void fixedFling_startsAtReleaseVelocity() {
+        final int velocity = -3000;
+        mScroller.fling(0, 0, 0, velocity, 0, 0, -200, -200);
+        assertEquals(Math.abs(velocity), mScroller.getCurrVelocity(), Math.abs(velocity) * 0.05f);
+
+        final int duration = HScroller.computeFixedFlingDuration(200, velocity, 400);
+        mClock.mTime = duration - 1;
+        assertTrue(mScroller.computeScrollOffset());
+        assertFalse(mScroller.isFinished());
+
+        mClock.mTime = duration;
+        assertTrue(mScroller.computeScrollOffset());
+        assertTrue(mScroller.isFinished());
+        assertEquals(-200, mScroller.getCurrY());
+    }
+
+    @Test
+    public void abortAnimation_jumpsToEnd() {
+        mScroller.startScroll(0, 0, 0, 100, 250);
+        mClock.mTime = 50;
+        mScroller.computeScrollOffset();
+
+        mScroller.abortAnimation();
+        assertTrue(mScroller.isFinished());
+        assertEquals(100, mScroller.getCurrY());
+        assertFalse(mScroller.computeScrollOffset());
+    }
+
+    private static final class FakeClock implements AnimationClock {
+        private long mTime;
+
+        @Override
+        public long currentTimeMillis() {
+            return mTime;
+        }
+    }
+}
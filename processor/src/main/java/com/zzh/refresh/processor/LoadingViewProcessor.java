@@ -0,0 +1,226 @@
+package com.zzh.refresh.processor;
+
+import com.zzh.refresh.annotation.DefaultFooter;
+import com.zzh.refresh.annotation.DefaultHeader;
+import com.zzh.refresh.annotation.GeneratedNames;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * 处理{@link DefaultHeader}和{@link DefaultFooter}注解，生成{@link GeneratedNames#PROVIDER_CLASS}类，
+ * 在Application中调用生成类的{@link GeneratedNames#INSTALL_METHOD}方法注册后，库通过生成的工厂直接new出加载view，不需要反射
+ */
+public class LoadingViewProcessor extends AbstractProcessor {
+    private static final String CLASS_CONTEXT = "android.content.Context";
+    private static final String CLASS_VIEW = "android.view.View";
+    private static final String CLASS_LOADING_VIEW = "com.zzh.refresh.loadingview.LoadingView";
+
+    private TypeElement mHeaderElement;
+    private TypeElement mFooterElement;
+    private boolean mGenerated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        final Set<String> set = new LinkedHashSet<>();
+        set.add(DefaultHeader.class.getCanonicalName());
+        set.add(DefaultFooter.class.getCanonicalName());
+        return set;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final TypeElement header = findElement(roundEnv, DefaultHeader.class, mHeaderElement);
+        if (header != null)
+            mHeaderElement = header;
+
+        final TypeElement footer = findElement(roundEnv, DefaultFooter.class, mFooterElement);
+        if (footer != null)
+            mFooterElement = footer;
+
+        if (!mGenerated && (mHeaderElement != null || mFooterElement != null)) {
+            mGenerated = true;
+            generateProvider();
+        }
+        return true;
+    }
+
+    /**
+     * 找到并校验被注解的类，每种注解只允许一个类
+     *
+     * @param roundEnv
+     * @param annotation
+     * @param previous   之前的轮次找到的类
+     * @return
+     */
+    private TypeElement findElement(RoundEnvironment roundEnv, Class<? extends Annotation> annotation, TypeElement previous) {
+        TypeElement result = null;
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (!checkElement(element, annotation))
+                continue;
+
+            if (previous != null || result != null) {
+                error(element, "Only one class can be annotated with @" + annotation.getSimpleName());
+                continue;
+            }
+
+            if (mGenerated) {
+                error(element, "@" + annotation.getSimpleName() + " found after "
+                        + GeneratedNames.PROVIDER_CLASS + " was generated");
+                continue;
+            }
+
+            result = (TypeElement) element;
+        }
+        return result;
+    }
+
+    private boolean checkElement(Element element, Class<? extends Annotation> annotation) {
+        final String name = "@" + annotation.getSimpleName();
+
+        if (element.getKind() != ElementKind.CLASS) {
+            error(element, name + " can only be used on classes");
+            return false;
+        }
+
+        final TypeElement typeElement = (TypeElement) element;
+        if (!typeElement.getModifiers().contains(Modifier.PUBLIC)
+                || typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(element, name + " class must be public and not abstract");
+            return false;
+        }
+
+        if (typeElement.getNestingKind().isNested() && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+            error(element, name + " nested class must be static");
+            return false;
+        }
+
+        if (!isSubtype(typeElement, CLASS_VIEW) || !isSubtype(typeElement, CLASS_LOADING_VIEW)) {
+            error(element, name + " class must extend " + CLASS_VIEW + " and implement " + CLASS_LOADING_VIEW);
+            return false;
+        }
+
+        if (!hasContextConstructor(typeElement)) {
+            error(element, name + " class must have a public constructor with a single " + CLASS_CONTEXT + " parameter");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isSubtype(TypeElement element, String className) {
+        final TypeElement target = processingEnv.getElementUtils().getTypeElement(className);
+        if (target == null)
+            return false;
+
+        return processingEnv.getTypeUtils().isAssignable(element.asType(),
+                processingEnv.getTypeUtils().erasure(target.asType()));
+    }
+
+    private boolean hasContextConstructor(TypeElement element) {
+        final List<ExecutableElement> constructors = ElementFilter.constructorsIn(element.getEnclosedElements());
+        for (ExecutableElement item : constructors) {
+            if (!item.getModifiers().contains(Modifier.PUBLIC))
+                continue;
+
+            final List<? extends VariableElement> parameters = item.getParameters();
+            if (parameters.size() != 1)
+                continue;
+
+            final TypeMirror type = processingEnv.getTypeUtils().erasure(parameters.get(0).asType());
+            if (CLASS_CONTEXT.equals(type.toString()))
+                return true;
+        }
+        return false;
+    }
+
+    private void generateProvider() {
+        final List<Element> originating = new ArrayList<>();
+        if (mHeaderElement != null)
+            originating.add(mHeaderElement);
+        if (mFooterElement != null)
+            originating.add(mFooterElement);
+
+        final StringBuilder builder = new StringBuilder();
+        builder.append("package ").append(GeneratedNames.PROVIDER_PACKAGE).append(";\n\n")
+                .append("import android.content.Context;\n\n")
+                .append("import com.zzh.refresh.loadingview.LoadingView;\n")
+                .append("import com.zzh.refresh.loadingview.LoadingViewFactory;\n")
+                .append("import com.zzh.refresh.loadingview.LoadingViewFactoryProvider;\n")
+                .append("import com.zzh.refresh.loadingview.LoadingViewFactoryRegistry;\n\n")
+                .append("/**\n")
+                .append(" * Generated by ").append(LoadingViewProcessor.class.getName()).append(", do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(GeneratedNames.PROVIDER_SIMPLE_NAME)
+                .append(" implements LoadingViewFactoryProvider {\n")
+                .append("    /**\n")
+                .append("     * Registers the generated factories, call it in Application#onCreate().\n")
+                .append("     */\n")
+                .append("    public static void ").append(GeneratedNames.INSTALL_METHOD).append("() {\n")
+                .append("        LoadingViewFactoryRegistry.install(new ").append(GeneratedNames.PROVIDER_SIMPLE_NAME).append("());\n")
+                .append("    }\n\n");
+        appendFactoryMethod(builder, "getHeaderFactory", mHeaderElement);
+        builder.append("\n");
+        appendFactoryMethod(builder, "getFooterFactory", mFooterElement);
+        builder.append("}\n");
+
+        try {
+            final JavaFileObject file = processingEnv.getFiler().createSourceFile(GeneratedNames.PROVIDER_CLASS,
+                    originating.toArray(new Element[originating.size()]));
+            final Writer writer = file.openWriter();
+            try {
+                writer.write(builder.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + GeneratedNames.PROVIDER_CLASS + ": " + e.getMessage());
+        }
+    }
+
+    private static void appendFactoryMethod(StringBuilder builder, String methodName, TypeElement element) {
+        builder.append("    @Override\n")
+                .append("    public LoadingViewFactory ").append(methodName).append("() {\n");
+
+        if (element == null) {
+            builder.append("        return null;\n");
+        } else {
+            builder.append("        return new LoadingViewFactory() {\n")
+                    .append("            @Override\n")
+                    .append("            public LoadingView create(Context context) {\n")
+                    .append("                return new ").append(element.getQualifiedName()).append("(context);\n")
+                    .append("            }\n")
+                    .append("        };\n");
+        }
+
+        builder.append("    }\n");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
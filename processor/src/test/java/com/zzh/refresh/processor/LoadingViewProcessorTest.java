@@ -0,0 +1,237 @@
+package com.zzh.refresh.processor;
+
+import com.zzh.refresh.annotation.GeneratedNames;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 用javac编译带注解的源码，检查{@link LoadingViewProcessor}生成的{@link GeneratedNames#PROVIDER_CLASS}和报告的错误，在JVM上运行<br>
+ * 编译时使用最小化的Context、View和库中接口的源码代替Android依赖
+ */
+public class LoadingViewProcessorTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String HEADER_SOURCE = "package test;\n"
+            + "import android.content.Context;\n"
+            + "import android.view.View;\n"
+            + "import com.zzh.refresh.annotation.DefaultHeader;\n"
+            + "import com.zzh.refresh.loadingview.LoadingView;\n"
+            + "@DefaultHeader\n"
+            + "public class MyHeader extends View implements LoadingView {\n"
+            + "    public MyHeader(Context context) {\n"
+            + "        super(context);\n"
+            + "    }\n"
+            + "}\n";
+
+    private File mRootDir;
+    private File mSourceDir;
+    private File mClassDir;
+    private File mGeneratedDir;
+
+    private String mDiagnostics;
+
+    @Before
+    public void setUp() throws IOException {
+        mRootDir = Files.createTempDirectory("processor-test").toFile();
+        mSourceDir = new File(mRootDir, "src");
+        mClassDir = new File(mRootDir, "classes");
+        mGeneratedDir = new File(mRootDir, "generated");
+        assertTrue(mClassDir.mkdirs());
+        assertTrue(mGeneratedDir.mkdirs());
+    }
+
+    @After
+    public void tearDown() {
+        delete(mRootDir);
+    }
+
+    @Test
+    public void generatesProviderForHeader() throws Exception {
+        final Map<String, String> sources = librarySources();
+        sources.put("test.MyHeader", HEADER_SOURCE);
+
+        assertTrue(mDiagnostics, compile(sources));
+
+        final File generated = new File(mGeneratedDir, GeneratedNames.PROVIDER_CLASS.replace('.', File.separatorChar) + ".java");
+        assertTrue("provider source not generated", generated.isFile());
+        final String source = new String(Files.readAllBytes(generated.toPath()), UTF_8);
+        assertTrue(source, source.contains("return new test.MyHeader(context);"));
+        assertFalse("no reflection in generated code", source.contains("forName"));
+
+        // 调用生成类的install方法，通过注册表拿到工厂并创建加载view
+        final URLClassLoader loader = new URLClassLoader(new URL[]{mClassDir.toURI().toURL()}, getClass().getClassLoader());
+        try {
+            final Class<?> provider = loader.loadClass(GeneratedNames.PROVIDER_CLASS);
+            provider.getMethod(GeneratedNames.INSTALL_METHOD).invoke(null);
+
+            final Class<?> registry = loader.loadClass("com.zzh.refresh.loadingview.LoadingViewFactoryRegistry");
+            final Object installed = registry.getField("sProvider").get(null);
+            assertNotNull("install() did not register the provider", installed);
+            assertEquals(provider, installed.getClass());
+
+            final Object headerFactory = invoke(installed, "getHeaderFactory");
+            assertNotNull(headerFactory);
+            final Method create = loader.loadClass("com.zzh.refresh.loadingview.LoadingViewFactory")
+                    .getMethod("create", loader.loadClass("android.content.Context"));
+            final Object headerView = create.invoke(headerFactory, new Object[]{null});
+            assertEquals("test.MyHeader", headerView.getClass().getName());
+
+            assertNull(invoke(installed, "getFooterFactory"));
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void rejectsClassWithoutContextConstructor() throws Exception {
+        final Map<String, String> sources = librarySources();
+        sources.put("test.MyHeader", HEADER_SOURCE.replace("public MyHeader(Context context)", "public MyHeader()")
+                .replace("super(context);", "super(null);"));
+
+        assertFalse(compile(sources));
+        assertTrue(mDiagnostics, mDiagnostics.contains("public constructor with a single android.content.Context parameter"));
+    }
+
+    @Test
+    public void rejectsClassNotImplementingLoadingView() throws Exception {
+        final Map<String, String> sources = librarySources();
+        sources.put("test.MyHeader", HEADER_SOURCE.replace(" implements LoadingView", ""));
+
+        assertFalse(compile(sources));
+        assertTrue(mDiagnostics, mDiagnostics.contains("must extend android.view.View and implement"));
+    }
+
+    @Test
+    public void rejectsSecondHeader() throws Exception {
+        final Map<String, String> sources = librarySources();
+        sources.put("test.MyHeader", HEADER_SOURCE);
+        sources.put("test.OtherHeader", HEADER_SOURCE.replace("MyHeader", "OtherHeader"));
+
+        assertFalse(compile(sources));
+        assertTrue(mDiagnostics, mDiagnostics.contains("Only one class can be annotated with @DefaultHeader"));
+    }
+
+    /**
+     * 编译源码，注解处理器使用{@link LoadingViewProcessor}
+     *
+     * @param sources 全类名 -> 源码
+     * @return true-编译成功
+     */
+    private boolean compile(Map<String, String> sources) throws IOException {
+        final List<File> files = new ArrayList<>();
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            final File file = new File(mSourceDir, entry.getKey().replace('.', File.separatorChar) + ".java");
+            assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+            Files.write(file.toPath(), entry.getValue().getBytes(UTF_8));
+            files.add(file);
+        }
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("tests must run on a JDK", compiler);
+
+        final DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(collector, Locale.ROOT, UTF_8);
+        try {
+            final List<String> options = Arrays.asList(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-d", mClassDir.getPath(),
+                    "-s", mGeneratedDir.getPath(),
+                    "-encoding", "UTF-8");
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, collector, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(Collections.singletonList(new LoadingViewProcessor()));
+            final boolean success = task.call();
+
+            final StringBuilder builder = new StringBuilder();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : collector.getDiagnostics()) {
+                builder.append(diagnostic.getMessage(Locale.ROOT)).append('\n');
+            }
+            mDiagnostics = builder.toString();
+            return success;
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    /**
+     * 库和Android中生成的代码依赖的类型，只保留编译和调用需要的部分
+     *
+     * @return
+     */
+    private static Map<String, String> librarySources() {
+        final Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("android.content.Context", "package android.content;\n"
+                + "public class Context {\n"
+                + "}\n");
+        sources.put("android.view.View", "package android.view;\n"
+                + "public class View {\n"
+                + "    public View(android.content.Context context) {\n"
+                + "    }\n"
+                + "}\n");
+        sources.put("com.zzh.refresh.loadingview.LoadingView", "package com.zzh.refresh.loadingview;\n"
+                + "public interface LoadingView {\n"
+                + "}\n");
+        sources.put("com.zzh.refresh.loadingview.LoadingViewFactory", "package com.zzh.refresh.loadingview;\n"
+                + "public interface LoadingViewFactory {\n"
+                + "    LoadingView create(android.content.Context context);\n"
+                + "}\n");
+        sources.put("com.zzh.refresh.loadingview.LoadingViewFactoryProvider", "package com.zzh.refresh.loadingview;\n"
+                + "public interface LoadingViewFactoryProvider {\n"
+                + "    LoadingViewFactory getHeaderFactory();\n"
+                + "    LoadingViewFactory getFooterFactory();\n"
+                + "}\n");
+        sources.put("com.zzh.refresh.loadingview.LoadingViewFactoryRegistry", "package com.zzh.refresh.loadingview;\n"
+                + "public final class LoadingViewFactoryRegistry {\n"
+                + "    public static LoadingViewFactoryProvider sProvider;\n"
+                + "    public static void install(LoadingViewFactoryProvider provider) {\n"
+                + "        sProvider = provider;\n"
+                + "    }\n"
+                + "}\n");
+        return sources;
+    }
+
+    private static Object invoke(Object target, String methodName) throws Exception {
+        final Method method = target.getClass().getMethod(methodName);
+        return method.invoke(target);
+    }
+
+    private static void delete(File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}